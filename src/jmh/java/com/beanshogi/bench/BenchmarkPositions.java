@@ -0,0 +1,73 @@
+package com.beanshogi.bench;
+
+import java.util.Arrays;
+
+import com.beanshogi.core.board.Board;
+import com.beanshogi.core.board.MoveGenerator;
+import com.beanshogi.core.board.MoveList;
+import com.beanshogi.core.board.Sfen;
+import com.beanshogi.core.game.Game;
+import com.beanshogi.core.game.Player;
+import com.beanshogi.core.game.PlayerType;
+import com.beanshogi.core.game.Sides;
+
+/**
+ * Fixed corpus of benchmark positions.
+ * Every position is the Game start position followed by a fixed move sequence in USI notation,
+ * so the corpus is rebuilt identically on every run and doesn't depend on the engine's own choices.
+ */
+public enum BenchmarkPositions {
+    /** Both sides opening their bishop diagonals, no contact yet */
+    OPENING("6g6f 6c6d 5g5f 5c5d 4g4f 4c4d"),
+    /** Promoted bishops on both sides and pieces in hand */
+    MIDDLEGAME("6g6f 6c6d 5g5f 5c5d 4g4f 4c4d 9g9f 1c1d 8h9g 2b1c 9g6d 3a3b 6d5c+ 7a7b 5c5d 1c4f 5d3b 4a3b "
+        + "G*4a 3b4a P*4b P*5h 2h5h 4a4b P*4c 4b4c P*4b 4f7i+ 4b4a+ 5a4a 5h4h B*6g 4i3h G*6d 4h4d 4c4d "
+        + "P*4b 4a4b 6i5h 6g8i+"),
+    /** Attack on the Sente king with many drops and promoted pieces */
+    ENDGAME("6g6f 6c6d 5g5f 5c5d 4g4f 4c4d 9g9f 1c1d 8h9g 2b1c 9g6d 3a3b 6d5c+ 7a7b 5c5d 1c4f 5d3b 4a3b "
+        + "G*4a 3b4a P*4b P*5h 2h5h 4a4b P*4c 4b4c P*4b 4f7i+ 4b4a+ 5a4a 5h4h B*6g 4i3h G*6d 4h4d 4c4d "
+        + "P*4b 4a4b 6i5h 6g8i+ 3h4g R*8h 5h5g G*4e 5g4f N*6g 5i4i P*4h 4i3h 8h8g+ 4f4e 4d4e G*4a 4b4a "
+        + "3h4h S*5g 4h4i G*5i 4i3h 8i9i P*4b 4a4b 5f5e L*9g 1g1f P*6h 1f1e 6h6i+ 1e1d 8g8h P*4h 1a1d "
+        + "1i1d P*4c L*2b P*1g 2b2a+ 1g1h+ N*1c P*6h 2a2b P*1g 2i1g 1h1g P*1b N*8g 1b1a+ P*1h 2b2c 1h1i+");
+
+    private final String moves;
+
+    BenchmarkPositions(String moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * Build a fresh board for the position.
+     * @return board with the move sequence applied through the move manager
+     */
+    public Board createBoard() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.AI);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.AI);
+        Board board = new Game(Arrays.asList(sente, gote)).getBoard();
+        MoveGenerator generator = new MoveGenerator();
+        MoveList legal = new MoveList();
+        for (String usi : moves.split(" ")) {
+            generator.generateLegal(board.getState(), legal);
+            board.moveManager.applyMove(board.unpackMove(sideToMove(board), findMove(legal, usi)));
+        }
+        return board;
+    }
+
+    /**
+     * Get the side to move in the position.
+     * @param board a board created by createBoard
+     * @return side to move
+     */
+    public static Sides sideToMove(Board board) {
+        return Sides.values()[board.getState().getSideToMove()];
+    }
+
+    private static int findMove(MoveList legal, String usi) {
+        for (int i = 0; i < legal.size(); i++) {
+            if (Sfen.formatMove(legal.get(i)).equals(usi)) {
+                return legal.get(i);
+            }
+        }
+        throw new IllegalStateException("Corpus move " + usi + " is not legal");
+    }
+}
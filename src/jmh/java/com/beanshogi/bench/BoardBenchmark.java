@@ -0,0 +1,57 @@
+package com.beanshogi.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.beanshogi.core.board.Board;
+import com.beanshogi.core.board.Move;
+import com.beanshogi.core.board.MoveGenerator;
+import com.beanshogi.core.board.MoveList;
+
+/**
+ * Board copies and the make/undo cycle of the move manager on the corpus positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    private Board board;
+    private Move move;
+
+    @Setup
+    public void setup() {
+        board = position.createBoard();
+        // The last generated legal move, a drop when the side to move holds pieces
+        MoveList legal = new MoveList();
+        new MoveGenerator().generateLegal(board.getState(), legal);
+        move = board.unpackMove(BenchmarkPositions.sideToMove(board), legal.get(legal.size() - 1));
+    }
+
+    @Benchmark
+    public Board copy() {
+        return board.copy();
+    }
+
+    @Benchmark
+    public void applyAndUndo() {
+        board.moveManager.applyMove(move);
+        board.moveManager.undoMove();
+    }
+}
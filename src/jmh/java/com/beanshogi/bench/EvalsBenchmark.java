@@ -0,0 +1,72 @@
+package com.beanshogi.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.beanshogi.core.board.Board;
+import com.beanshogi.core.game.Sides;
+import com.beanshogi.core.pieces.Piece;
+
+/**
+ * Legality queries the GUI and the game loop run on every move, for the side to move of each corpus position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvalsBenchmark {
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    private Board board;
+    private Sides side;
+    private final List<Piece> boardPieces = new ArrayList<>();
+    private final List<Class<? extends Piece>> handClasses = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        board = position.createBoard();
+        side = BenchmarkPositions.sideToMove(board);
+        boardPieces.addAll(board.getPiecesOfSide(side));
+        for (Piece handPiece : board.getPlayer(side).getHandPieces()) {
+            if (!handClasses.contains(handPiece.getClass())) {
+                handClasses.add(handPiece.getClass());
+            }
+        }
+    }
+
+    @Benchmark
+    public void filteredLegalMoves(Blackhole bh) {
+        for (Piece piece : boardPieces) {
+            bh.consume(board.evals.getFilteredLegalMoves(piece));
+        }
+    }
+
+    @Benchmark
+    public boolean isCheckMate() {
+        return board.evals.isCheckMate(side);
+    }
+
+    @Benchmark
+    public void pieceDropPoints(Blackhole bh) {
+        for (Class<? extends Piece> handClass : handClasses) {
+            bh.consume(board.getPieceDropPoints(handClass, side));
+        }
+    }
+}
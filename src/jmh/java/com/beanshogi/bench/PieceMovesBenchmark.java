@@ -0,0 +1,59 @@
+package com.beanshogi.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.beanshogi.core.board.Board;
+import com.beanshogi.core.pieces.Piece;
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Piece.getLegalMoves for every piece class, over all pieces of that class on the corpus boards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    @Param({"PAWN", "LANCE", "KNIGHT", "SILVER", "BISHOP", "ROOK", "GOLD", "KING",
+        "PROMOTED_PAWN", "PROMOTED_LANCE", "PROMOTED_KNIGHT", "PROMOTED_SILVER", "PROMOTED_BISHOP", "PROMOTED_ROOK"})
+    public PieceType pieceType;
+
+    private final List<Piece> pieces = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Board board = position.createBoard();
+        for (Piece piece : board.getAllPieces()) {
+            if (piece.getType() == pieceType) {
+                pieces.add(piece);
+            }
+        }
+    }
+
+    @Benchmark
+    public void legalMoves(Blackhole bh) {
+        for (Piece piece : pieces) {
+            bh.consume(piece.getLegalMoves());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.beanshogi.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.beanshogi.core.ai.AIDifficulty;
+import com.beanshogi.core.ai.ShogiAI;
+import com.beanshogi.core.ai.TimeControl;
+import com.beanshogi.core.board.Board;
+import com.beanshogi.core.game.Sides;
+
+/**
+ * ShogiAI.getBestMove at every difficulty.
+ * The search runs single-threaded to its fixed difficulty depth with an empty transposition table,
+ * so the work per invocation depends on the position and not on the clock.
+ * Only the ordering noise of the easier levels still varies the tree between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    @Param({"EASY", "NORMAL", "HARD"})
+    public AIDifficulty difficulty;
+
+    private ShogiAI ai;
+    private Sides side;
+    private TimeControl timeControl;
+
+    @Setup
+    public void setup() {
+        Board board = position.createBoard();
+        side = BenchmarkPositions.sideToMove(board);
+        ai = new ShogiAI(board, 1);
+        timeControl = TimeControl.fixedDepth(difficulty.getSearchDepth());
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        if (ai.getTranspositionTable() != null) {
+            ai.getTranspositionTable().clear();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ai.shutdown();
+    }
+
+    @Benchmark
+    public int bestMove() {
+        return ai.getBestMove(side, difficulty, timeControl);
+    }
+}
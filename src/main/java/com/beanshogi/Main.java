@@ -1,12 +1,36 @@
 package com.beanshogi;
+import java.util.Arrays;
+
+import com.beanshogi.core.board.Perft;
 import com.beanshogi.gui.ShogiWindow;
+import com.beanshogi.tournament.BookGenerator;
+import com.beanshogi.tournament.Tournament;
+import com.beanshogi.usi.UsiEngine;
 
 /**
  * Entry point for BeanShogi application.
  * Launches the GUI on the Event Dispatch Thread for thread safety.
+ * Headless modes are chosen by the first argument: "usi" (USI engine on stdin/stdout, see UsiEngine),
+ * "perft" (see Perft), "tournament" (see Tournament) or "book" (see BookGenerator).
  */
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("usi")) {
+            new UsiEngine(System.in, System.out).run();
+            return;
+        }
+        if (args.length > 0 && args[0].equals("perft")) {
+            Perft.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tournament")) {
+            Tournament.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("book")) {
+            BookGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         // Launch GUI on Event Dispatch Thread (EDT) to avoid threading issues
         javax.swing.SwingUtilities.invokeLater(ShogiWindow::new);
     }
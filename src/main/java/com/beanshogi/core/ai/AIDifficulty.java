@@ -1,22 +1,27 @@
 package com.beanshogi.core.ai;
 
 /**
- * Defines AI difficulty levels with corresponding search depth and move ordering randomness.
+ * Defines AI difficulty levels with corresponding search depth, think time, move ordering randomness
+ * and transposition table size.
  * Higher difficulties have deeper search and less randomness for stronger play.
  */
 public enum AIDifficulty {
-    EASY("Easy", 1, 160),
-    NORMAL("Normal", 2, 60),
-    HARD("Hard", 3, 0);
+    EASY("Easy", 1, 1000, 160, 4),
+    NORMAL("Normal", 2, 2000, 60, 16),
+    HARD("Hard", 3, 5000, 0, 64);
 
     private final String displayName;
     private final int searchDepth;
+    private final long moveTimeMillis;
     private final int orderingNoise;
+    private final int hashSizeMb;
 
-    AIDifficulty(String displayName, int searchDepth, int orderingNoise) {
+    AIDifficulty(String displayName, int searchDepth, long moveTimeMillis, int orderingNoise, int hashSizeMb) {
         this.displayName = displayName;
         this.searchDepth = searchDepth;
+        this.moveTimeMillis = moveTimeMillis;
         this.orderingNoise = orderingNoise;
+        this.hashSizeMb = hashSizeMb;
     }
 
     public String getDisplayName() {
@@ -27,10 +32,26 @@ public enum AIDifficulty {
         return searchDepth;
     }
 
+    /**
+     * Get the longest time the AI may think about a move.
+     * @return think time in milliseconds
+     */
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
     public int getOrderingNoise() {
         return orderingNoise;
     }
 
+    /**
+     * Get the memory budget of the transposition table.
+     * @return table size in megabytes
+     */
+    public int getHashSizeMb() {
+        return hashSizeMb;
+    }
+
     @Override
     public String toString() {
         return displayName;
@@ -0,0 +1,200 @@
+package com.beanshogi.core.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import com.beanshogi.core.board.MoveList;
+import com.beanshogi.core.board.PackedMove;
+
+/**
+ * Read-only opening book, a file of (Zobrist key, move, weight) records memory-mapped from disk.
+ * Records are sorted by key (signed order) and within a key by descending weight, so all moves of a position
+ * are one run found by a binary search - a lookup touches a few pages of the file and allocates nothing.
+ * Layout (big endian):
+ * header: magic "BSBK", version byte, three reserved bytes (0)
+ * records: key (long), packed move (int), weight (int), RECORD_BYTES each, up to the end of the file
+ * Books are written by OpeningBookBuilder. Keys can collide, callers must check a book move is legal.
+ * @param records the mapped records, shared read-only by every thread
+ * @param size number of records
+ */
+public final class OpeningBook {
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 16;
+
+    /** Book file of the installation: the beanshogi.ai.book property or book/openings.bsb in the working directory */
+    public static final String DEFAULT_PATH = System.getProperty("beanshogi.ai.book", "book/openings.bsb");
+
+    private static final byte[] MAGIC = {'B', 'S', 'B', 'K'};
+
+    private static volatile OpeningBook defaultBook;
+    private static volatile boolean defaultLoaded;
+
+    private final ByteBuffer records;
+    private final int size;
+
+    private OpeningBook(ByteBuffer records) {
+        this.records = records;
+        this.size = records.capacity() / RECORD_BYTES;
+    }
+
+    /**
+     * Map a book file into memory. The file stays mapped after the channel is closed.
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file can't be read or is no valid book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || (length - HEADER_BYTES) % RECORD_BYTES != 0
+                    || length - HEADER_BYTES > (long) Integer.MAX_VALUE / RECORD_BYTES * RECORD_BYTES) {
+                throw new IOException("Not a BeanShogi book (size " + length + ")");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            for (byte b : MAGIC) {
+                if (mapped.get() != b) {
+                    throw new IOException("Not a BeanShogi book");
+                }
+            }
+            int version = mapped.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported book version " + version);
+            }
+            mapped.position(HEADER_BYTES);
+            return new OpeningBook(mapped.slice());
+        }
+    }
+
+    /**
+     * Get the book at DEFAULT_PATH, loaded on first use. AIs only use it when it is set on them.
+     * @return the book, null if there is no book file or it can't be read
+     */
+    public static OpeningBook getDefault() {
+        if (!defaultLoaded) {
+            synchronized (OpeningBook.class) {
+                if (!defaultLoaded) {
+                    Path path = Path.of(DEFAULT_PATH);
+                    if (Files.isRegularFile(path)) {
+                        try {
+                            defaultBook = open(path);
+                        } catch (IOException e) {
+                            System.err.println("Opening book not loaded: " + e.getMessage());
+                        }
+                    }
+                    defaultLoaded = true;
+                }
+            }
+        }
+        return defaultBook;
+    }
+
+    /**
+     * Write sorted records as a book file, replacing an existing file.
+     * @param keys position keys, sorted
+     * @param moves packed moves, by descending weight within a key
+     * @param weights weights, positive
+     * @param count number of records
+     * @param path target file
+     * @throws IOException if the file can't be written
+     */
+    static void write(long[] keys, int[] moves, int[] weights, int count, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * RECORD_BYTES);
+        buffer.put(MAGIC).put((byte) VERSION).put(new byte[HEADER_BYTES - MAGIC.length - 1]);
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(keys[i]).putInt(moves[i]).putInt(weights[i]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Get the number of records.
+     * @return record count
+     */
+    public int size() {
+        return size;
+    }
+
+    private long key(int index) {
+        return records.getLong(index * RECORD_BYTES);
+    }
+
+    private int move(int index) {
+        return records.getInt(index * RECORD_BYTES + 8);
+    }
+
+    private int weight(int index) {
+        return records.getInt(index * RECORD_BYTES + 12);
+    }
+
+    // Index of the first record with the key, or of the first larger key
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the book moves of a position.
+     * @param key Zobrist key of the position
+     * @param out cleared and filled with the moves, the weights are stored as their scores
+     * @return number of moves, 0 if the position is not in the book
+     */
+    public int getMoves(long key, MoveList out) {
+        out.clear();
+        for (int i = lowerBound(key); i < size && key(i) == key; i++) {
+            out.add(move(i));
+            out.setScore(out.size() - 1, weight(i));
+        }
+        return out.size();
+    }
+
+    /**
+     * Choose a book move of a position, with a chance proportional to its weight.
+     * @param key Zobrist key of the position
+     * @param random source of the choice, null to always take the heaviest move
+     * @return packed move, PackedMove.NONE if the position is not in the book
+     */
+    public int pick(long key, Random random) {
+        int first = lowerBound(key);
+        if (first == size || key(first) != key) {
+            return PackedMove.NONE;
+        }
+        if (random == null) {
+            return move(first);
+        }
+        long total = 0;
+        int end = first;
+        for (; end < size && key(end) == key; end++) {
+            total += weight(end);
+        }
+        long choice = (long) (random.nextDouble() * total);
+        for (int i = first; i < end; i++) {
+            choice -= weight(i);
+            if (choice < 0) {
+                return move(i);
+            }
+        }
+        return move(end - 1);
+    }
+}
@@ -0,0 +1,123 @@
+package com.beanshogi.core.ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.beanshogi.core.board.BoardState;
+import com.beanshogi.core.board.MoveHistory;
+
+/**
+ * Collects the opening moves of game lines and writes them as an OpeningBook file.
+ * Every time a move is played from a position its weight grows: by WIN_WEIGHT when the side playing it won the
+ * game, by DRAW_WEIGHT for draws and games without a known result. Moves of the losing side are left out.
+ * @param maxPlies only the first maxPlies moves of a line go into the book
+ * @param entries weight per move, per position key
+ * @param records number of (key, move) pairs collected
+ */
+public class OpeningBookBuilder {
+    /** Winner of a drawn game or a game without a known result */
+    public static final int NO_WINNER = -1;
+    /** Weight added for a move of the winning side */
+    public static final int WIN_WEIGHT = 2;
+    /** Weight added for a move of a drawn game or a game without a result */
+    public static final int DRAW_WEIGHT = 1;
+
+    private final int maxPlies;
+    private final Map<Long, Map<Integer, Integer>> entries = new HashMap<>();
+    private int records;
+
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Add weight to a move of a position.
+     * @param key Zobrist key of the position
+     * @param move packed move played from the position
+     * @param weight weight to add, ignored unless positive
+     */
+    public void add(long key, int move, int weight) {
+        if (weight <= 0) {
+            return;
+        }
+        Map<Integer, Integer> moves = entries.computeIfAbsent(key, k -> new HashMap<>());
+        Integer old = moves.get(move);
+        if (old == null) {
+            records++;
+            moves.put(move, weight);
+        } else {
+            moves.put(move, (int) Math.min(Integer.MAX_VALUE, (long) old + weight));
+        }
+    }
+
+    /**
+     * Add the opening of a game line.
+     * @param history the line with its start position
+     * @param firstPly moves before this ply are only played, not added (e.g. random self-play openings)
+     * @param winner side index of the winner, NO_WINNER for draws and unknown results
+     */
+    public void addGame(MoveHistory history, int firstPly, int winner) {
+        BoardState position = new BoardState();
+        position.copyFrom(history.getStart());
+        int end = Math.min(history.size(), maxPlies);
+        for (int ply = 0; ply < end; ply++) {
+            int move = history.getMove(ply);
+            int side = history.getSide(ply);
+            position.setSideToMove(side);
+            if (ply >= firstPly) {
+                add(position.getKey(), move, winner == NO_WINNER ? DRAW_WEIGHT : winner == side ? WIN_WEIGHT : 0);
+            }
+            position.makeMove(move);
+        }
+    }
+
+    /**
+     * Get the number of positions collected.
+     * @return position count
+     */
+    public int positions() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of records the book will have.
+     * @return (position, move) pair count
+     */
+    public int records() {
+        return records;
+    }
+
+    /**
+     * Write the collected moves as a book file, see OpeningBook for the layout.
+     * @param path target file, replaced if it exists
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path path) throws IOException {
+        long[] keys = new long[records];
+        int[] moves = new int[records];
+        int[] weights = new int[records];
+        Long[] sortedKeys = entries.keySet().toArray(new Long[0]);
+        Arrays.sort(sortedKeys);
+        int count = 0;
+        for (Long key : sortedKeys) {
+            Map<Integer, Integer> byMove = entries.get(key);
+            int first = count;
+            for (Map.Entry<Integer, Integer> entry : byMove.entrySet()) {
+                // Insertion sort by descending weight, a position has only a few book moves
+                int i = count++;
+                while (i > first && weights[i - 1] < entry.getValue()) {
+                    moves[i] = moves[i - 1];
+                    weights[i] = weights[i - 1];
+                    i--;
+                }
+                moves[i] = entry.getKey();
+                weights[i] = entry.getValue();
+            }
+            Arrays.fill(keys, first, count, key);
+        }
+        OpeningBook.write(keys, moves, weights, count, path);
+    }
+}
@@ -0,0 +1,104 @@
+package com.beanshogi.core.ai;
+
+import java.util.Arrays;
+
+import com.beanshogi.core.board.Bitboard;
+import com.beanshogi.core.board.PackedMove;
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Move ordering memory of one search worker: killer moves, butterfly history and countermoves.
+ * Quiet moves that caused a beta cutoff are remembered here and tried early in sibling and later nodes.
+ * Every worker owns its tables and clears them before a search, so they need no synchronization and the
+ * helper threads keep ordering their own trees differently (which is what spreads out Lazy SMP).
+ * Moves are keyed by (side, piece, destination), where a drop counts as its own piece so drops and board
+ * moves of the same type don't share scores.
+ * @param killers two quiet cutoff moves per ply, the newest first
+ * @param history cutoff score per (side, piece, destination), grows with depth squared and is halved when it saturates
+ * @param counterMoves quiet move that refuted a (side, piece, destination) of the opponent
+ */
+final class OrderingTables {
+    /** History scores stay below this bound */
+    static final int HISTORY_MAX = 1 << 14;
+
+    // Pieces of the history index: board moves of every type, then drops of every hand type
+    private static final int PIECES = PieceType.COUNT + PieceType.HAND_COUNT;
+
+    private final int[] killers = new int[SearchWorker.MAX_PLY * 2];
+    private final int[] history = new int[2 * PIECES * Bitboard.SQUARES];
+    private final int[] counterMoves = new int[2 * PIECES * Bitboard.SQUARES];
+
+    /**
+     * Forget everything, called before every search.
+     */
+    void clear() {
+        Arrays.fill(killers, PackedMove.NONE);
+        Arrays.fill(history, 0);
+        Arrays.fill(counterMoves, PackedMove.NONE);
+    }
+
+    private static int index(int side, int move) {
+        int piece = PackedMove.isDrop(move) ? PieceType.COUNT + PackedMove.pieceType(move) : PackedMove.pieceType(move);
+        return (side * PIECES + piece) * Bitboard.SQUARES + PackedMove.to(move);
+    }
+
+    /**
+     * Get a killer move of a ply.
+     * @param ply distance from the root
+     * @param slot 0 for the newest, 1 for the older killer
+     * @return the killer, PackedMove.NONE if the slot is empty
+     */
+    int killer(int ply, int slot) {
+        return killers[ply * 2 + slot];
+    }
+
+    /**
+     * Get the history score of a move.
+     * @param side side index of the moving side
+     * @param move packed move
+     * @return score between 0 and HISTORY_MAX
+     */
+    int history(int side, int move) {
+        return history[index(side, move)];
+    }
+
+    /**
+     * Get the remembered answer to the opponent's last move.
+     * @param side side index of the side to move
+     * @param previousMove the opponent's last move, PackedMove.NONE at the root
+     * @return the countermove, PackedMove.NONE if there is none
+     */
+    int counterMove(int side, int previousMove) {
+        if (previousMove == PackedMove.NONE) {
+            return PackedMove.NONE;
+        }
+        return counterMoves[index(side ^ 1, previousMove)];
+    }
+
+    /**
+     * Remember a quiet move that caused a beta cutoff.
+     * @param side side index of the moving side
+     * @param ply distance from the root
+     * @param depth remaining depth of the node, deeper cutoffs weigh more
+     * @param previousMove the opponent's last move, PackedMove.NONE at the root
+     * @param move the cutoff move
+     */
+    void cutoff(int side, int ply, int depth, int previousMove, int move) {
+        int slot = ply * 2;
+        if (killers[slot] != move) {
+            killers[slot + 1] = killers[slot];
+            killers[slot] = move;
+        }
+        if (previousMove != PackedMove.NONE) {
+            counterMoves[index(side ^ 1, previousMove)] = move;
+        }
+        int index = index(side, move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_MAX) {
+            // Halve everything so recent cutoffs outweigh old ones
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,703 @@
+package com.beanshogi.core.ai;
+
+import java.util.Random;
+
+import com.beanshogi.core.board.Bitboard;
+import com.beanshogi.core.board.BoardState;
+import com.beanshogi.core.board.MoveGenerator;
+import com.beanshogi.core.board.MoveList;
+import com.beanshogi.core.board.PackedMove;
+import com.beanshogi.core.game.Sides;
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * One search thread of ShogiAI.
+ * A worker owns its copy of the board core, move lists and principal variation tables and only shares
+ * the transposition table and the stop request with the other workers (Lazy SMP). The main worker
+ * watches the clock and decides the move, helper workers fill the shared table for it.
+ * @param owner the AI whose table and stop request are shared
+ * @param mainWorker true for the worker whose result is played
+ * @param searchState private copy of the root position, reset in place before every search
+ * @param ordering killer, history and countermove tables, cleared before every search
+ * @param playedMoves move played at every ply of the current line, for the countermove lookup
+ */
+class SearchWorker {
+    static final int MAX_PLY = 64;
+
+    // Score bounds - mate scores are MATE_SCORE minus the distance in plies from the root
+    static final int INFINITY = 1_000_001;
+    static final int MATE_SCORE = 1_000_000;
+    static final int MATE_BOUND = MATE_SCORE - MAX_PLY;
+
+    // Ordering priorities: the principal variation or transposition table move, captures, killers and the
+    // countermove, each class above the next one, and quiet moves by history below all of them
+    static final int HINT_MOVE_PRIORITY = 1 << 20;
+    static final int CAPTURE_PRIORITY = 1 << 18;
+    static final int KILLER_PRIORITY = 1 << 17;
+    static final int COUNTER_MOVE_PRIORITY = 1 << 16;
+    static final int PROMOTION_PRIORITY = 50;
+
+    // Null-move pruning: shallowest depth, base reduction and the depth step adding one more ply of reduction
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int NULL_MOVE_DEPTH_DIVISOR = 4;
+
+    // Late move reductions: shallowest depth, moves searched at full depth first, and the index from which
+    // quiet moves are reduced by two plies
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 3;
+    private static final int LMR_DEEP_MOVES = 8;
+
+    // Evaluation weight of one pseudo-legal destination, and the largest mobility swing the lazy cutoff assumes
+    private static final int MOBILITY_WEIGHT = 3;
+    private static final int LAZY_MARGIN = 300;
+
+    // Quiescence: plies that also search checking moves, score margin and promotion gain of delta pruning
+    private static final int QUIESCENCE_CHECK_PLIES = 1;
+    private static final int DELTA_MARGIN = 200;
+    private static final int PROMOTION_GAIN = 600;
+
+    // Nodes searched between two checks of the clock and stop request (power of two)
+    private static final int STOP_CHECK_INTERVAL = 1024;
+
+    private final ShogiAI owner;
+    private final boolean mainWorker;
+    private final BoardState searchState = new BoardState();
+    private final Random random = new Random();
+    private final MoveGenerator generator = new MoveGenerator();
+    private final MoveList[] plyMoves = new MoveList[MAX_PLY];
+    private final OrderingTables ordering = new OrderingTables();
+    private final int[] playedMoves = new int[MAX_PLY];
+    private TranspositionTable table;
+    private long nodes;
+
+    // Iterative deepening state
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[] previousPv = new int[MAX_PLY];
+    private int previousPvLength;
+    private boolean followPv;
+    private boolean stopped;
+    private int completedDepth;
+    private int lastScore;
+
+    SearchWorker(ShogiAI owner, boolean mainWorker) {
+        this.owner = owner;
+        this.mainWorker = mainWorker;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            plyMoves[ply] = new MoveList();
+        }
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    int getLastScore() {
+        return lastScore;
+    }
+
+    OrderingTables getOrdering() {
+        return ordering;
+    }
+
+    int getPvLength() {
+        return previousPvLength;
+    }
+
+    int[] getPv() {
+        return previousPv;
+    }
+
+    /**
+     * Iterative deepening: searches depth firstDepth, firstDepth + 1, ... until the depth limit is hit or the
+     * search is stopped. An iteration cut short is thrown away.
+     * @param root the root position, copied into the worker's own board core
+     * @param sideToMove the side to move
+     * @param difficulty the AI difficulty level (ordering noise)
+     * @param timeControl the depth and time limits of the search
+     * @param firstDepth depth of the first iteration - helpers start at different depths to spread out
+     * @return the best move of the last completed iteration, PackedMove.NONE if there is none
+     */
+    int iterate(BoardState root, Sides sideToMove, AIDifficulty difficulty, TimeControl timeControl, int firstDepth) {
+        long start = System.nanoTime();
+        long deadline = owner.getDeadline();
+        table = owner.getTranspositionTable();
+        nodes = 0;
+        stopped = false;
+        completedDepth = 0;
+        lastScore = 0;
+        previousPvLength = 0;
+        ordering.clear();
+
+        // Work on an isolated copy of the board core so search can make/unmake moves without touching the live board
+        searchState.copyFrom(root);
+        searchState.setSideToMove(sideToMove.ordinal());
+
+        int bestMove = PackedMove.NONE;
+        for (int depth = firstDepth; depth <= timeControl.getMaxDepth(); depth++) {
+            followPv = true;
+            int move = searchRoot(searchState, depth, difficulty);
+            if (stopped || move == PackedMove.NONE) {
+                break;
+            }
+            bestMove = move;
+            completedDepth = depth;
+            previousPvLength = pvLength[0];
+            System.arraycopy(pvTable[0], 0, previousPv, 0, previousPvLength);
+            extendPvFromTable(searchState, depth);
+            if (mainWorker) {
+                owner.iterationCompleted(depth, lastScore, previousPv, previousPvLength);
+            }
+
+            // A forced mate will not change with more depth
+            if (lastScore >= MATE_BOUND) {
+                break;
+            }
+            // The next iteration costs more than all previous ones together, don't start it past half the budget
+            if (mainWorker && deadline != 0L && System.nanoTime() - start > (deadline - start) / 2) {
+                break;
+            }
+            if (mainWorker && isPastNodeLimit()) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Table cutoffs cut the collected principal variation short, so continue it with the stored best moves.
+     * Every table move is checked against the generated moves, so a key collision cannot add a bogus move.
+     * @param searchState the root position (restored before returning)
+     * @param depth the completed iteration depth
+     */
+    private void extendPvFromTable(BoardState searchState, int depth) {
+        int made = 0;
+        for (; made < previousPvLength; made++) {
+            searchState.makeMove(previousPv[made]);
+        }
+        while (previousPvLength < depth) {
+            long entry = table.probe(searchState.getKey());
+            int move = TranspositionTable.move(entry);
+            if (entry == 0L || !isPlayable(searchState, move)) {
+                break;
+            }
+            searchState.makeMove(move);
+            previousPv[previousPvLength++] = move;
+            made++;
+        }
+        while (made > 0) {
+            searchState.unmakeMove(previousPv[--made]);
+        }
+    }
+
+    private boolean isPlayable(BoardState state, int move) {
+        MoveList scratch = plyMoves[MAX_PLY - 1];
+        generator.generateLegal(state, scratch);
+        for (int i = 0; i < scratch.size(); i++) {
+            if (scratch.get(i) == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Search all root moves to a fixed depth.
+     * The first move gets the full window, the others a zero window around the best score so far and a
+     * full re-search only when they beat it.
+     * @param searchState the root position
+     * @param depth the iteration depth
+     * @param difficulty the AI difficulty level
+     * @return the best root move, PackedMove.NONE if there is no legal move
+     */
+    private int searchRoot(BoardState searchState, int depth, AIDifficulty difficulty) {
+        int bestScore = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        long rootKey = searchState.getKey();
+        long rootEntry = table.probe(rootKey);
+        int hintMove = previousPvLength > 0 ? previousPv[0] : TranspositionTable.move(rootEntry);
+        pvLength[0] = 0;
+
+        // Generate all possible moves from the copied state so we can make/unmake safely
+        MoveList candidateMoves = plyMoves[0];
+        generateAllMoves(searchState, candidateMoves, difficulty, true, hintMove, 0, PackedMove.NONE);
+
+        for (int i = 0; i < candidateMoves.size(); i++) {
+            int move = candidateMoves.get(i);
+
+            searchState.makeMove(move);
+            playedMoves[0] = move;
+
+            followPv = i == 0 && move == hintMove && previousPvLength > 0;
+            int score;
+            if (bestMove == PackedMove.NONE) {
+                score = -negamax(searchState, depth - 1, 1, -INFINITY, INFINITY, difficulty, true);
+            } else {
+                // Only moves beating the best so far need exact scores
+                score = -negamax(searchState, depth - 1, 1, -bestScore - 1, -bestScore, difficulty, true);
+                if (score > bestScore && !stopped) {
+                    score = -negamax(searchState, depth - 1, 1, -INFINITY, -bestScore, difficulty, true);
+                }
+            }
+            followPv = false;
+
+            searchState.unmakeMove(move);
+            if (stopped) {
+                return bestMove;
+            }
+
+            if (bestMove == PackedMove.NONE || score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                updatePv(0, move);
+            }
+        }
+        if (bestMove != PackedMove.NONE) {
+            lastScore = bestScore;
+            table.store(rootKey, bestMove, depth, TranspositionTable.BOUND_EXACT, toTableScore(bestScore, 0));
+        }
+        return bestMove;
+    }
+
+    /**
+     * Make a move the head of a ply's principal variation, followed by the variation of the next ply.
+     * @param ply the ply of the move
+     * @param move the new best move
+     */
+    private void updatePv(int ply, int move) {
+        int[] line = pvTable[ply];
+        line[ply] = move;
+        int childLength = pvLength[ply + 1];
+        if (childLength > ply + 1) {
+            System.arraycopy(pvTable[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+            pvLength[ply] = childLength;
+        } else {
+            pvLength[ply] = ply + 1;
+        }
+    }
+
+    /**
+     * Count a node and check the stop request (and for the main worker the clock and node budget) every few nodes.
+     * The main worker's first iteration is never interrupted, so there always is a move to play.
+     * @return true if the search must stop
+     */
+    private boolean checkStop() {
+        if ((++nodes & (STOP_CHECK_INTERVAL - 1)) == 0 && !stopped) {
+            if (!mainWorker) {
+                stopped = owner.isStopRequested();
+            } else if (completedDepth > 0 && (owner.isStopRequested() || owner.isPastDeadline() || isPastNodeLimit())) {
+                // The main worker's decision ends the search for the helpers too
+                owner.requestStop();
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    private boolean isPastNodeLimit() {
+        long limit = owner.getNodeLimit();
+        return limit != 0L && nodes >= limit;
+    }
+
+    /**
+     * Generate legal moves for the side to move, ordered by the hint move, captures (most valuable victim first),
+     * killers, the countermove and the history of the quiet moves.
+     * @param state the position to generate moves for
+     * @param moves the ply's move list to fill
+     * @param difficulty the AI difficulty level
+     * @param applyNoise whether to apply ordering noise
+     * @param hintMove move searched first (principal variation or transposition table move)
+     * @param ply distance from the root, selects the killers
+     * @param previousMove the opponent's last move, selects the countermove, PackedMove.NONE at the root
+     */
+    void generateAllMoves(BoardState state, MoveList moves, AIDifficulty difficulty, boolean applyNoise,
+                          int hintMove, int ply, int previousMove) {
+        generator.generateLegal(state, moves);
+        int side = state.getSideToMove();
+        int killer1 = ordering.killer(ply, 0);
+        int killer2 = ordering.killer(ply, 1);
+        int counterMove = ordering.counterMove(side, previousMove);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int captured = PackedMove.capturedType(move);
+            int priority;
+            if (move == hintMove) {
+                priority = HINT_MOVE_PRIORITY;
+            } else if (captured >= 0) {
+                priority = CAPTURE_PRIORITY + PieceType.value(captured);
+            } else if (move == killer1) {
+                priority = KILLER_PRIORITY + 1;
+            } else if (move == killer2) {
+                priority = KILLER_PRIORITY;
+            } else if (move == counterMove) {
+                priority = COUNTER_MOVE_PRIORITY;
+            } else {
+                priority = ordering.history(side, move);
+            }
+            if (PackedMove.isPromotion(move)) {
+                priority += PROMOTION_PRIORITY;
+            }
+            moves.setScore(i, addOrderingNoise(priority, difficulty, applyNoise));
+        }
+
+        // Sort moves by their ordering score
+        moves.sortByScore();
+    }
+
+    /**
+     * Adds random noise to the base score for move ordering to introduce variability.
+     * @param baseScore the base score of the move
+     * @param difficulty the AI difficulty level
+     * @param applyNoise whether to apply noise or not
+     * @return the modified score with noise
+     */
+    private int addOrderingNoise(int baseScore, AIDifficulty difficulty, boolean applyNoise) {
+        if (!applyNoise) {
+            return Math.max(0, baseScore);
+        }
+        int noiseRange = difficulty.getOrderingNoise();
+        if (noiseRange <= 0) {
+            return Math.max(0, baseScore);
+        }
+        int jitter = random.nextInt(noiseRange * 2 + 1) - noiseRange;
+        return Math.max(0, baseScore + jitter);
+    }
+
+    /**
+     * Negamax principal variation search with transposition table cutoffs, null-move pruning and late move reductions.
+     * Scores are from the side to move's point of view, like the table entries. The first move of a node is
+     * searched with the full window, the later ones with a zero window that is widened again only when a move
+     * beats alpha. Quiet moves late in the ordering are first searched with a reduced depth.
+     * @param state the current position
+     * @param depth the remaining depth, quiescence search below 1
+     * @param ply distance from the root, selects the move list to reuse
+     * @param alpha the alpha value for pruning
+     * @param beta the beta value for pruning
+     * @param difficulty the AI difficulty level
+     * @param allowNull false right after a null move, so two passes never follow each other
+     * @return evaluation score
+     */
+    private int negamax(BoardState state, int depth, int ply, int alpha, int beta, AIDifficulty difficulty,
+                        boolean allowNull) {
+        if (depth <= 0) {
+            return quiescence(state, ply, alpha, beta, 0);
+        }
+        pvLength[ply] = ply;
+        if (checkStop()) {
+            return 0;
+        }
+
+        int side = state.getSideToMove();
+        boolean pvNode = beta - alpha > 1;
+        int alphaOrig = alpha;
+
+        // Transposition table lookup
+        long key = state.getKey();
+        long entry = table.probe(key);
+        int ttMove = PackedMove.NONE;
+        if (entry != 0L) {
+            ttMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int ttScore = fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                    || (bound == TranspositionTable.BOUND_LOWER && ttScore >= beta)
+                    || (bound == TranspositionTable.BOUND_UPPER && ttScore <= alpha)) {
+                    return ttScore;
+                }
+            }
+        }
+
+        // Null move: if passing still fails high on a reduced search, a real move will too.
+        // Never when in check (passing would be illegal) or near mate scores
+        boolean inCheck = MoveGenerator.isInCheck(state, side);
+        if (allowNull && !pvNode && !inCheck && depth >= NULL_MOVE_MIN_DEPTH
+                && Math.abs(beta) < MATE_BOUND && state.pieceSquareScore(side) >= beta) {
+            int reduction = NULL_MOVE_REDUCTION + depth / NULL_MOVE_DEPTH_DIVISOR;
+            state.setSideToMove(side ^ 1);
+            playedMoves[ply] = PackedMove.NONE;
+            int score = -negamax(state, depth - 1 - reduction, ply + 1, -beta, -beta + 1, difficulty, false);
+            state.setSideToMove(side);
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        // Stay on the previous principal variation as long as the path followed it
+        boolean onPv = followPv && ply < previousPvLength;
+        int hintMove = onPv ? previousPv[ply] : ttMove;
+
+        // Generate all possible moves
+        MoveList moves = plyMoves[ply];
+        generateAllMoves(state, moves, difficulty, false, hintMove, ply, playedMoves[ply - 1]);
+
+        // If no moves available, check for checkmate or stalemate
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            boolean quiet = !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+            // Killers and the countermove are ordered above COUNTER_MOVE_PRIORITY and keep their full depth
+            boolean reducible = quiet && !inCheck && i >= LMR_MIN_MOVES && depth >= LMR_MIN_DEPTH
+                && moves.getScore(i) < COUNTER_MOVE_PRIORITY;
+
+            // Apply the move directly on the shared state, evaluate, then undo to reuse state
+            state.makeMove(move);
+            playedMoves[ply] = move;
+
+            followPv = onPv && move == hintMove;
+            int score;
+            if (i == 0) {
+                score = -negamax(state, depth - 1, ply + 1, -beta, -alpha, difficulty, true);
+            } else {
+                int reduction = 0;
+                if (reducible && !MoveGenerator.isInCheck(state, side ^ 1)) {
+                    reduction = i >= LMR_DEEP_MOVES ? 2 : 1;
+                }
+                score = -negamax(state, depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, difficulty, true);
+                if (score > alpha && reduction > 0 && !stopped) {
+                    score = -negamax(state, depth - 1, ply + 1, -alpha - 1, -alpha, difficulty, true);
+                }
+                if (score > alpha && score < beta && !stopped) {
+                    score = -negamax(state, depth - 1, ply + 1, -beta, -alpha, difficulty, true);
+                }
+            }
+            followPv = false;
+
+            state.unmakeMove(move);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                }
+            }
+            if (alpha >= beta) {
+                // Quiet refutations go into the ordering tables, captures are ordered well enough by value
+                if (!PackedMove.isCapture(move)) {
+                    ordering.cutoff(side, ply, depth, playedMoves[ply - 1], move);
+                }
+                break;
+            }
+        }
+
+        // Store the result, the bound type comes from the original window
+        int bound = best <= alphaOrig ? TranspositionTable.BOUND_UPPER
+                  : best >= beta ? TranspositionTable.BOUND_LOWER
+                  : TranspositionTable.BOUND_EXACT;
+        table.store(key, bestMove, depth, bound, toTableScore(best, ply));
+
+        return best;
+    }
+
+    /**
+     * Quiescence search: only captures (and checks on the first QUIESCENCE_CHECK_PLIES plies) are searched
+     * until the position is quiet, so the evaluation never sees a piece hanging to a recapture.
+     * The side to move may stand pat on the static evaluation, except when in check where every evasion is searched.
+     * Captures are tried most valuable victim first, then least valuable attacker, and captures that can't lift
+     * the score to alpha even with a margin are skipped (delta pruning).
+     * @param state the current position
+     * @param ply distance from the root, selects the move list to reuse
+     * @param alpha the alpha value, from the side to move's view
+     * @param beta the beta value, from the side to move's view
+     * @param qply plies searched in quiescence so far
+     * @return score from the side to move's view
+     */
+    private int quiescence(BoardState state, int ply, int alpha, int beta, int qply) {
+        pvLength[ply] = ply;
+        if (checkStop()) {
+            return 0;
+        }
+        int side = state.getSideToMove();
+        boolean inCheck = MoveGenerator.isInCheck(state, side);
+        int standPat = -INFINITY;
+        if (!inCheck) {
+            standPat = evaluate(state, Sides.values()[side], ply, alpha, beta);
+            if (standPat >= beta || ply >= MAX_PLY - 2) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+        }
+
+        MoveList moves = plyMoves[ply];
+        generator.generateLegal(state, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE_SCORE + ply : standPat;
+        }
+        if (inCheck && ply >= MAX_PLY - 2) {
+            return evaluate(state, Sides.values()[side], ply, alpha, beta);
+        }
+
+        // Keep the tactical moves only, ordered by MVV-LVA
+        boolean withChecks = qply < QUIESCENCE_CHECK_PLIES;
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int captured = PackedMove.capturedType(move);
+            int priority;
+            if (captured >= 0) {
+                // Delta pruning: even winning the piece (and promoting) leaves the score below alpha
+                int gain = PieceType.value(captured) + (PackedMove.isPromotion(move) ? PROMOTION_GAIN : 0);
+                if (!inCheck && standPat + gain + DELTA_MARGIN <= alpha) {
+                    continue;
+                }
+                priority = PieceType.value(captured) * 100 - PieceType.value(PackedMove.pieceType(move)) / 10;
+            } else if (inCheck || (withChecks && givesCheck(state, move))) {
+                priority = 0;
+            } else {
+                continue;
+            }
+            moves.set(kept, move);
+            moves.setScore(kept, priority);
+            kept++;
+        }
+        moves.truncate(kept);
+        moves.sortByScore();
+
+        int best = standPat;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            state.makeMove(move);
+            int score = -quiescence(state, ply + 1, -beta, -alpha, qply + 1);
+            state.unmakeMove(move);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Checks whether a legal move of the side to move attacks the opponent king
+    private static boolean givesCheck(BoardState state, int move) {
+        int opponent = state.getSideToMove() ^ 1;
+        state.makeMove(move);
+        boolean check = MoveGenerator.isInCheck(state, opponent);
+        state.unmakeMove(move);
+        return check;
+    }
+
+    /**
+     * Convert a mate score relative to the root into one relative to the stored node, so it stays valid at any ply.
+     * @param score score seen at the node
+     * @param ply distance of the node from the root
+     * @return score to store
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Evaluate score.
+     * Material, centre and promotion zone terms are running sums of the board core, checks are attack map lookups.
+     * Mobility and mate detection are only computed when the cheap score isn't clearly outside the window.
+     * @param state the position to evaluate
+     * @param maximizingSide the side to maximize
+     * @param ply distance from the root, used to prefer shorter mates
+     * @param alpha lower bound of the window, from the maximizing side's view
+     * @param beta upper bound of the window, from the maximizing side's view
+     * @return evaluation score, exact inside the window
+     */
+    private int evaluate(BoardState state, Sides maximizingSide, int ply, int alpha, int beta) {
+        int maxSide = maximizingSide.ordinal();
+        int oppSide = maxSide ^ 1;
+        int score = state.pieceSquareScore(maxSide);
+
+        // Apply check bonuses/penalties
+        boolean maxInCheck = MoveGenerator.isInCheck(state, maxSide);
+        boolean oppInCheck = MoveGenerator.isInCheck(state, oppSide);
+        if (maxInCheck) {
+            score -= 200;
+        }
+        if (oppInCheck) {
+            score += 300;
+        }
+
+        // Lazy cutoff - mobility can't bring the score back into the window, and only a mate of the
+        // side checked could (a mate of the opponent when failing low, of the own king when failing high)
+        if (score + LAZY_MARGIN <= alpha && !oppInCheck) {
+            return score;
+        }
+        if (score - LAZY_MARGIN >= beta && !maxInCheck) {
+            return score;
+        }
+
+        if (oppInCheck && generator.isCheckMate(state, oppSide)) {
+            return MATE_SCORE - ply;
+        }
+        if (maxInCheck && generator.isCheckMate(state, maxSide)) {
+            return -MATE_SCORE + ply;
+        }
+        return score + mobility(state, maxSide);
+    }
+
+    /**
+     * Mobility term: MOBILITY_WEIGHT per pseudo-legal destination, walking the occupancy bitboards once.
+     * @param state the position
+     * @param maxSide side index to maximize
+     * @return signed mobility score
+     */
+    private static int mobility(BoardState state, int maxSide) {
+        int score = 0;
+        long lo = state.occupiedLo();
+        long hi = state.occupiedHi();
+        while (lo != 0) {
+            int sq = Bitboard.firstLo(lo);
+            lo &= lo - 1;
+            score += mobilityOf(state, sq, maxSide);
+        }
+        while (hi != 0) {
+            int sq = Bitboard.firstHi(hi);
+            hi &= hi - 1;
+            score += mobilityOf(state, sq, maxSide);
+        }
+        return score;
+    }
+
+    private static int mobilityOf(BoardState state, int sq, int maxSide) {
+        int bonus = MoveGenerator.mobility(state, sq) * MOBILITY_WEIGHT;
+        return BoardState.sideOf(state.pieceAt(sq)) == maxSide ? bonus : -bonus;
+    }
+}
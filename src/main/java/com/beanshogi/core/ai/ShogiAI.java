@@ -1,301 +1,426 @@
 package com.beanshogi.core.ai;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.beanshogi.core.board.Board;
-import com.beanshogi.core.board.Move;
-import com.beanshogi.core.game.Player;
+import com.beanshogi.core.board.BoardState;
+import com.beanshogi.core.board.MoveGenerator;
+import com.beanshogi.core.board.MoveList;
+import com.beanshogi.core.board.PackedMove;
 import com.beanshogi.core.game.Sides;
-import com.beanshogi.core.pieces.Piece;
-import com.beanshogi.core.util.Position;
 
 /**
- * Class implementing a basic Shogi AI using minimax with alpha-beta pruning
- * and simple move ordering heuristics.
+ * Class implementing a basic Shogi AI using a negamax principal variation search with null-move pruning,
+ * late move reductions and killer/history move ordering.
+ * The search runs on the primitive board core with packed int moves and one reusable move list per ply,
+ * so nothing is allocated per node. Results are cached in a transposition table keyed by the Zobrist key.
+ * An iterative deepening driver searches one ply deeper per iteration until the time control runs out,
+ * starting every iteration with the principal variation of the previous one.
+ * With an opening book set, positions found in it are answered from the book without a search.
+ * With more than one thread the search runs as Lazy SMP: helper workers search the same position on their
+ * own board copies and share only the lock-free transposition table with the main worker.
+ * @param board the live board the AI plays on, null for an AI that is only given board cores to search
+ * @param book opening book consulted before every search, null (the default) for none
+ * @param bookRandom source of the weighted book choice, null to always play the heaviest book move
+ * @param bookMove the move of the last getBestMove call if it came from the book, PackedMove.NONE otherwise
+ * @param tables one transposition table per difficulty, so an AI playing both sides at different levels keeps both
+ * @param table the table of the current or last search
+ * @param threads number of search threads (main worker plus helpers)
+ * @param listener receiver of the results of every completed iteration, may be null
  */
 public class ShogiAI {
-
     /**
-     * Helper class to hold a move along with its ordering score
+     * Receives the result of every iteration the main worker completes, on the searching thread.
      */
-    private static class MoveScore {
-        final com.beanshogi.core.board.Move move;
-        final int orderingScore;
-        MoveScore(Move m, int ordering) {
-            move = m;
-            orderingScore = ordering;
-        }
+    public interface SearchListener {
+        /**
+         * Called after an iteration of the iterative deepening search.
+         * @param depth the completed depth
+         * @param score score from the searching side's point of view, see matePlies for mate scores
+         * @param nodes nodes searched so far by all threads
+         * @param elapsedNanos time since the search started
+         * @param pv principal variation as packed moves
+         */
+        void iterationCompleted(int depth, int score, long nodes, long elapsedNanos, int[] pv);
     }
 
+    /** Thread count used when none is given: the beanshogi.ai.threads property or every available core */
+    public static final int DEFAULT_THREADS = Math.max(1,
+        Integer.getInteger("beanshogi.ai.threads", Runtime.getRuntime().availableProcessors()));
+
     private final Board board;
-    private final Random random = new Random();
+    private final BoardState rootState = new BoardState();
+    private SearchListener listener;
+    private final EnumMap<AIDifficulty, TranspositionTable> tables = new EnumMap<>(AIDifficulty.class);
+    private TranspositionTable table;
+    private int hashSizeMb;
+    private int threads;
+    private final List<SearchWorker> workers = new ArrayList<>();
+    private OpeningBook book;
+    private Random bookRandom;
+    private final MoveGenerator generator = new MoveGenerator();
+    private final MoveList legalMoves = new MoveList();
+    private int bookMove = PackedMove.NONE;
+    private ExecutorService helperPool;
+
+    // Shared search control, written by the thread driving the search and read by every worker
+    private volatile boolean stopRequested;
+    private volatile long deadline;
+    private long nodeLimit;
+    private long searchStart;
+    private long nodes;
 
     public ShogiAI(Board board) {
+        this(board, DEFAULT_THREADS);
+    }
+
+    public ShogiAI(Board board, int threads) {
         this.board = board;
+        setThreads(threads);
     }
 
     /**
-     * Returns the best move (normal or drop) for the given side.
-     * @param sideToMove the side to move
-     * @param difficulty the AI difficulty level
-     * @return the best move found
+     * Create an AI without a live board, searching the positions passed to getBestMove(BoardState, ...).
+     * @param threads thread count, 1 for a single-threaded search
      */
-    public Move getBestMove(Sides sideToMove, AIDifficulty difficulty) {
-        AIDifficulty activeDifficulty = difficulty != null ? difficulty : AIDifficulty.NORMAL;
-        int maxDepth = Math.max(1, activeDifficulty.getSearchDepth());
-        
-        // Work on an isolated copy so search can apply/undo moves without touching the live board
-        Board searchBoard = board.copy();
-        int bestScore = Integer.MIN_VALUE;
-        Move bestMove = null;
-
-        // Generate all possible moves from the copied board so we can apply/undo safely
-        List<MoveScore> candidateMoves = generateAllMoves(searchBoard, sideToMove, activeDifficulty, true);
-
-        // Evaluate moves sequentially with alpha-beta
-        for (MoveScore ms : candidateMoves) {
-
-            searchBoard.moveManager.applyMove(ms.move);
-            if (searchBoard.evals.isKingInCheck(sideToMove)) {
-                // Illegal move (king left in check)
-                searchBoard.moveManager.undoMove();
-                searchBoard.moveManager.getRedoStack().clear();
-                continue;
-            }
-
-            // Get the score with the minimax algorithm
-            int score = minimax(searchBoard, maxDepth - 1, sideToMove.getOpposite(),
-                                sideToMove, Integer.MIN_VALUE, Integer.MAX_VALUE, activeDifficulty);
-
-            if (bestMove == null || score > bestScore) {
-                bestScore = score;
-                bestMove = ms.move;
-            }
-
-            searchBoard.moveManager.undoMove();
-            searchBoard.moveManager.getRedoStack().clear();
-        }
-        return bestMove;
+    public ShogiAI(int threads) {
+        this(null, threads);
     }
-    
+
     /**
-     * Generate pseudo-legal moves for the given board/side, ordered by simple heuristics.
-     * @param targetBoard the board to generate moves for
-     * @param sideToMove the side to move
-     * @param difficulty the AI difficulty level
-     * @param applyNoise whether to apply ordering noise
-     * @return list of moves with ordering scores
+     * Set the receiver of iteration results, e.g. for progress output.
+     * @param listener the listener, null for none
      */
-    private List<MoveScore> generateAllMoves(Board targetBoard, Sides sideToMove, AIDifficulty difficulty, boolean applyNoise) {
-        List<MoveScore> moves = new ArrayList<>();
-        Player player = targetBoard.getPlayer(sideToMove);
-
-        for (Piece piece : targetBoard.getPiecesOfSide(sideToMove)) {
-            Position from = piece.getBoardPosition();
-            if (from == null) {
-                continue;
-            }
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
 
-            // Generate both promotion and non-promotion variants up-front so move ordering can pick the best quickly
-            for (Position to : piece.getLegalMoves()) {
-                Piece captured = targetBoard.getPiece(to);
-                boolean canPromote = piece.canPromote() &&
-                    (from.inPromotionZone(sideToMove) || to.inPromotionZone(sideToMove));
-                boolean mustPromote = canPromote && piece.shouldPromote(from, to);
-
-                int priority = (captured != null ? Math.abs(captured.value()) + 100 : 0);
-
-                if (mustPromote) {
-                    moves.add(new MoveScore(new Move(player, from, to, piece, captured, true, false),
-                                             addOrderingNoise(priority + 50, difficulty, applyNoise)));
-                } else if (canPromote) {
-                    moves.add(new MoveScore(new Move(player, from, to, piece, captured, true, false),
-                                             addOrderingNoise(priority + 50, difficulty, applyNoise)));
-                    moves.add(new MoveScore(new Move(player, from, to, piece, captured, false, false),
-                                             addOrderingNoise(priority, difficulty, applyNoise)));
-                } else {
-                    moves.add(new MoveScore(new Move(player, from, to, piece, captured, false, false),
-                                             addOrderingNoise(priority, difficulty, applyNoise)));
-                }
-            }
+    /**
+     * Set the number of search threads used by the next searches.
+     * @param threads thread count, 1 for a single-threaded search
+     */
+    public void setThreads(int threads) {
+        int count = Math.max(1, threads);
+        if (count == this.threads) {
+            return;
         }
-
-        // Do the same for drops
-        for (Piece handPiece : player.getHandPieces()) {
-            List<Position> dropPoints = targetBoard.getPieceDropPoints(handPiece.getClass(), sideToMove);
-            for (Position dropPos : dropPoints) {
-                Move dropMove = new Move(
-                    player,
-                    handPiece.getHandPosition(),
-                    dropPos,
-                    handPiece,
-                    null,
-                    false,
-                    true
-                );
-                moves.add(new MoveScore(dropMove, addOrderingNoise(10, difficulty, applyNoise)));
-            }
+        shutdown();
+        this.threads = count;
+        workers.clear();
+        for (int i = 0; i < count; i++) {
+            workers.add(new SearchWorker(this, i == 0));
         }
+    }
 
-        // Sort moves by their ordering score
-        moves.sort((a, b) -> Integer.compare(b.orderingScore, a.orderingScore));
-        return moves;
+    public int getThreads() {
+        return threads;
     }
 
     /**
-     * Adds random noise to the base score for move ordering to introduce variability.
-     * @param baseScore the base score of the move
-     * @param difficulty the AI difficulty level
-     * @param applyNoise whether to apply noise or not
-     * @return the modified score with noise
+     * Set the opening book consulted before every search. An AI has no book unless one is set here,
+     * e.g. OpeningBook.getDefault() for the book file of the installation.
+     * Book moves are chosen by weight with an unseeded random source, see setOpeningBook(OpeningBook, Random).
+     * @param book the book, null to always search
      */
-    private int addOrderingNoise(int baseScore, AIDifficulty difficulty, boolean applyNoise) {
-        if (!applyNoise) {
-            return Math.max(0, baseScore);
-        }
-        int noiseRange = difficulty.getOrderingNoise();
-        if (noiseRange <= 0) {
-            return Math.max(0, baseScore);
-        }
-        int jitter = random.nextInt(noiseRange * 2 + 1) - noiseRange;
-        return Math.max(0, baseScore + jitter);
+    public void setOpeningBook(OpeningBook book) {
+        setOpeningBook(book, new Random());
     }
 
     /**
-     * Minimax with alpha-beta pruning
-     * @param currentBoard the current board state
-     * @param depth the search depth
-     * @param sideToMove the side to move
-     * @param alpha the alpha value for pruning
-     * @param beta the beta value for pruning
-     * @return evaluation score
+     * Set the opening book consulted before every search and the source of its weighted move choice.
+     * @param book the book, null to always search
+     * @param random source of the choice, seeded for reproducible games, null to always play the heaviest move
      */
-    private int minimax(Board currentBoard, int depth, Sides sideToMove, Sides maximizingSide,
-                        int alpha, int beta, AIDifficulty difficulty) {
+    public void setOpeningBook(OpeningBook book, Random random) {
+        this.book = book;
+        this.bookRandom = random;
+    }
 
-        // Base case: maximum depth reached
-        if (depth == 0) {
-            return evaluate(currentBoard, maximizingSide);
-        }
+    public OpeningBook getOpeningBook() {
+        return book;
+    }
 
-        // Generate all possible moves
-        List<MoveScore> moves = generateAllMoves(currentBoard, sideToMove, difficulty, false);
-        boolean maximizing = sideToMove == maximizingSide;
-        int best = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-        boolean exploredLegalMove = false;
+    /**
+     * Check whether the last move came from the opening book instead of a search.
+     * @return true for a book move
+     */
+    public boolean isBookMove() {
+        return bookMove != PackedMove.NONE;
+    }
 
-        // If no moves available, check for checkmate or stalemate
-        if (moves.isEmpty()) {
-            return currentBoard.evals.isKingInCheck(sideToMove) ? (maximizing ? Integer.MIN_VALUE + depth : Integer.MAX_VALUE - depth) : 0;
+    /**
+     * Stop the helper threads. The AI can still be used afterwards, the pool is recreated on demand.
+     */
+    public void shutdown() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+            helperPool = null;
         }
+    }
 
-        for (MoveScore ms : moves) {
-            // Apply the move directly on the shared board, evaluate, then undo to reuse state
-            currentBoard.moveManager.applyMove(ms.move);
-            if (currentBoard.evals.isKingInCheck(sideToMove)) {
-                currentBoard.moveManager.undoMove();
-                currentBoard.moveManager.getRedoStack().clear();
-                continue;
-            }
-            exploredLegalMove = true;
+    /**
+     * Override the transposition table size of the difficulty levels, e.g. when many AIs run side by side.
+     * @param hashSizeMb table size in megabytes, 0 to use the size of the difficulty
+     */
+    public void setHashSizeMb(int hashSizeMb) {
+        this.hashSizeMb = Math.max(0, hashSizeMb);
+    }
 
-            // recurse
-            int score = minimax(currentBoard, depth - 1, sideToMove.getOpposite(), maximizingSide, alpha, beta, difficulty);
+    /**
+     * Get the transposition table used by the last search, sized by the difficulty.
+     * @return the table, null before the first search
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
 
-            currentBoard.moveManager.undoMove();
-            currentBoard.moveManager.getRedoStack().clear();
+    /**
+     * Get the number of nodes visited by the last search, summed over all threads.
+     * @return node count
+     */
+    public long getNodesSearched() {
+        return nodes;
+    }
 
-            // Alpha-beta pruning
-            if (maximizing) {
-                best = Math.max(best, score);
-                alpha = Math.max(alpha, best);
-            } else {
-                best = Math.min(best, score);
-                beta = Math.min(beta, best);
-            }
+    /**
+     * Get the deepest iteration completed by the last search.
+     * @return depth in plies
+     */
+    public int getCompletedDepth() {
+        return isBookMove() ? 0 : workers.get(0).getCompletedDepth();
+    }
 
-            if (beta <= alpha) {
-                break;
-            }
+    /**
+     * Get the score of the last completed iteration, from the searching side's point of view.
+     * @return score in centipawn-like units, mate scores are close to +-1000000
+     */
+    public int getLastScore() {
+        return isBookMove() ? 0 : workers.get(0).getLastScore();
+    }
+
+    /**
+     * Get the principal variation of the last completed iteration.
+     * @return packed moves, starting with the best move
+     */
+    public int[] getPrincipalVariation() {
+        if (isBookMove()) {
+            return new int[] {bookMove};
         }
+        SearchWorker main = workers.get(0);
+        return Arrays.copyOf(main.getPv(), main.getPvLength());
+    }
 
-        // No legal moves explored (all left king in check)
-        if (!exploredLegalMove) {
-            return currentBoard.evals.isKingInCheck(sideToMove) ? (maximizing ? Integer.MIN_VALUE + depth : Integer.MAX_VALUE - depth) : 0;
+    /**
+     * Get the distance to mate of a search score.
+     * @param score a score reported by the search
+     * @return plies to mate, positive when the searching side mates, negative when it gets mated, 0 for no mate
+     */
+    public static int matePlies(int score) {
+        if (score >= SearchWorker.MATE_BOUND) {
+            return SearchWorker.MATE_SCORE - score;
+        }
+        if (score <= -SearchWorker.MATE_BOUND) {
+            return -(SearchWorker.MATE_SCORE + score);
         }
+        return 0;
+    }
 
-        return best;
+    /**
+     * Returns the best move (normal or drop) for the given side.
+     * The search is capped by the depth and think time of the difficulty.
+     * @param sideToMove the side to move
+     * @param difficulty the AI difficulty level
+     * @return the best move found as a packed move, PackedMove.NONE if there is none
+     */
+    public int getBestMove(Sides sideToMove, AIDifficulty difficulty) {
+        AIDifficulty activeDifficulty = difficulty != null ? difficulty : AIDifficulty.NORMAL;
+        return getBestMove(sideToMove, activeDifficulty, TimeControl.of(activeDifficulty));
     }
 
     /**
-     * Evaluate score
-     * @param board the board to evaluate
-     * @param maximizingSide the side to maximize
-     * @return evaluation score
+     * Returns the best move for the given side at full strength (no ordering noise, largest table).
+     * @param sideToMove the side to move
+     * @param timeControl the depth and time limits of the search
+     * @return the best move found as a packed move, PackedMove.NONE if there is none
      */
-    private int evaluate(Board board, Sides maximizingSide) {
-        int score = 0;
+    public int getBestMove(Sides sideToMove, TimeControl timeControl) {
+        return getBestMove(sideToMove, AIDifficulty.HARD, timeControl);
+    }
+
+    /**
+     * Iterative deepening search: depth 1, 2, ... until the depth or time limit is hit.
+     * The first iteration always completes, an iteration cut short by the clock is thrown away.
+     * Helper threads run their own iterative deepening until the main worker is done.
+     * @param sideToMove the side to move
+     * @param difficulty the AI difficulty level (ordering noise and table size)
+     * @param timeControl the depth, time and node limits of the search
+     * @return the best move of the last completed iteration, PackedMove.NONE if there is none
+     */
+    public int getBestMove(Sides sideToMove, AIDifficulty difficulty, TimeControl timeControl) {
+        return search(board.getState(), sideToMove, difficulty, timeControl);
+    }
 
-        // Only run expensive mate checks when a king is already in check, otherwise rely on material heuristics
-        boolean maxInCheck = board.evals.isKingInCheck(maximizingSide);
-        boolean oppInCheck = board.evals.isKingInCheck(maximizingSide.getOpposite());
+    /**
+     * Iterative deepening search of a position given as a board core, for the side to move of that core.
+     * @param position the position, left untouched
+     * @param difficulty the AI difficulty level (ordering noise and table size)
+     * @param timeControl the depth, time and node limits of the search
+     * @return the best move of the last completed iteration, PackedMove.NONE if there is none
+     */
+    public int getBestMove(BoardState position, AIDifficulty difficulty, TimeControl timeControl) {
+        return search(position, Sides.values()[position.getSideToMove()], difficulty, timeControl);
+    }
 
-        if (oppInCheck && board.evals.isCheckMate(maximizingSide.getOpposite())) {
-            return Integer.MAX_VALUE - 1;
+    private int search(BoardState position, Sides sideToMove, AIDifficulty difficulty, TimeControl timeControl) {
+        bookMove = probeBook(position, sideToMove);
+        if (bookMove != PackedMove.NONE) {
+            nodes = 0;
+            return bookMove;
         }
-        if (maxInCheck && board.evals.isCheckMate(maximizingSide)) {
-            return Integer.MIN_VALUE + 1;
+        long start = System.nanoTime();
+        searchStart = start;
+        prepareTable(difficulty);
+        stopRequested = false;
+        deadline = timeControl.hasTimeLimit() ? start + timeControl.getMoveTimeMillis() * 1_000_000L : 0L;
+        nodeLimit = timeControl.getMaxNodes();
+        rootState.copyFrom(position);
+
+        // Helpers start at alternating depths so they do not all search the same tree in lockstep
+        List<Future<?>> helpers = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            SearchWorker helper = workers.get(i);
+            int firstDepth = 1 + (i & 1);
+            helpers.add(getHelperPool().submit(() -> helper.iterate(rootState, sideToMove, difficulty, timeControl, firstDepth)));
         }
 
-        // Apply check bonuses/penalties
-        if (maxInCheck) {
-            score -= 200;
+        int bestMove;
+        try {
+            bestMove = workers.get(0).iterate(rootState, sideToMove, difficulty, timeControl, 1);
+        } finally {
+            requestStop();
+            awaitHelpers(helpers);
         }
-        if (oppInCheck) {
-            score += 300;
+
+        nodes = countNodes();
+        return bestMove;
+    }
+
+    /**
+     * Look the position up in the opening book.
+     * A move is only taken if it is legal, which guards against key collisions and books of other rule sets.
+     * @param position the position to move in
+     * @param sideToMove the side to move, the book is skipped if it isn't the side to move of the position
+     * @return a legal book move chosen by weight, PackedMove.NONE if there is none
+     */
+    private int probeBook(BoardState position, Sides sideToMove) {
+        if (book == null || position.getSideToMove() != sideToMove.ordinal()) {
+            return PackedMove.NONE;
+        }
+        int move = book.pick(position.getKey(), bookRandom);
+        if (move == PackedMove.NONE) {
+            return PackedMove.NONE;
+        }
+        generator.generateLegal(position, legalMoves);
+        for (int i = 0; i < legalMoves.size(); i++) {
+            if (legalMoves.get(i) == move) {
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    private long countNodes() {
+        long count = 0;
+        for (SearchWorker worker : workers) {
+            count += worker.getNodes();
         }
+        return count;
+    }
 
-        // Material evaluation - optimized to iterate once
-        for (Piece piece : board.getAllPieces()) {
-            int mobilityBonus = piece.getLegalMoves().size() * 3;
-            int positionBonus = evaluatePiecePosition(piece, maximizingSide);
-            int promotionBonus = 0;
-            
-            // Check promotion potential
-            if (piece.canPromote() && piece.getBoardPosition().inPromotionZone(piece.getSide())) {
-                promotionBonus = 100;
+    private void awaitHelpers(List<Future<?>> helpers) {
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.err.println("AI helper search failed: " + e.getCause());
             }
-            
-            int pieceScore = piece.value() + mobilityBonus + positionBonus + promotionBonus;
-            score += piece.getSide() == maximizingSide ? pieceScore : -pieceScore;
         }
+    }
 
-        return score;
+    private ExecutorService getHelperPool() {
+        if (helperPool == null) {
+            AtomicInteger counter = new AtomicInteger(1);
+            helperPool = Executors.newFixedThreadPool(threads - 1, r -> {
+                Thread t = new Thread(r, "beanshogi-ai-helper-" + counter.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return helperPool;
     }
 
     /**
-     * Evaluate piece position for bonus points
-     * @param piece the piece to evaluate
-     * @param maximizingSide the side to maximize
-     * @return the evaluation score
+     * Switch to the transposition table of a difficulty and start a new search generation.
+     * A table is only allocated on the first search of its difficulty or when the budget changed.
+     * @param difficulty the AI difficulty level, its budget applies unless overridden
      */
-    private int evaluatePiecePosition(Piece piece, Sides maximizingSide) {
-        int score = 0;
-        int x = piece.getBoardPosition().x;
-        int y = piece.getBoardPosition().y;
-
-        // Central control bonus
-        if (x >= 3 && x <= 5 && y >= 3 && y <= 5) {
-            score += 30;
+    private void prepareTable(AIDifficulty difficulty) {
+        int sizeMb = hashSizeMb > 0 ? hashSizeMb : difficulty.getHashSizeMb();
+        table = tables.get(difficulty);
+        if (table == null || table.getSizeMb() != sizeMb) {
+            table = new TranspositionTable(sizeMb);
+            tables.put(difficulty, table);
         }
+        table.newSearch();
+        table.resetCounters();
+    }
 
-        // Advancement bonus
-        if (piece.canPromote() && piece.getBoardPosition().inPromotionZone(maximizingSide)) {
-            score += 50;
-        }
+    /* Shared search control used by the workers */
+
+    /**
+     * Ask every worker to stop at its next check. The main worker still finishes its first iteration.
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
 
-        return score;
+    boolean isPastDeadline() {
+        long end = deadline;
+        return end != 0L && System.nanoTime() >= end;
+    }
+
+    long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * Report a completed iteration of the main worker to the listener.
+     * The node counts of the helpers are read while they are running, so the total is approximate.
+     */
+    void iterationCompleted(int depth, int score, int[] pv, int pvLength) {
+        SearchListener current = listener;
+        if (current != null) {
+            current.iterationCompleted(depth, score, countNodes(), System.nanoTime() - searchStart, Arrays.copyOf(pv, pvLength));
+        }
     }
 }
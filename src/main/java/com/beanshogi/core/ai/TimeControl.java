@@ -0,0 +1,110 @@
+package com.beanshogi.core.ai;
+
+/**
+ * Limits of a single search: a wall-clock budget per move, a maximum depth and a node budget.
+ * The iterative deepening driver stops at whichever limit is reached first.
+ * @param moveTimeMillis time budget of the move in milliseconds (0 for no time limit)
+ * @param maxDepth deepest iteration to search
+ * @param maxNodes nodes the main search thread may visit (0 for no node limit)
+ */
+public class TimeControl {
+    /** Deepest iteration the search supports */
+    public static final int MAX_DEPTH = 60;
+
+    // Share of the remaining clock spent on one move, and the time kept back for communication lag
+    private static final int MOVES_TO_GO = 40;
+    private static final long OVERHEAD_MILLIS = 50;
+
+    private final long moveTimeMillis;
+    private final int maxDepth;
+    private final long maxNodes;
+
+    public TimeControl(long moveTimeMillis, int maxDepth) {
+        this(moveTimeMillis, maxDepth, 0);
+    }
+
+    public TimeControl(long moveTimeMillis, int maxDepth, long maxNodes) {
+        this.moveTimeMillis = Math.max(0, moveTimeMillis);
+        this.maxDepth = Math.max(1, Math.min(MAX_DEPTH, maxDepth));
+        this.maxNodes = Math.max(0, maxNodes);
+    }
+
+    /**
+     * Search as deep as possible within a time budget.
+     * @param moveTimeMillis time budget in milliseconds
+     * @return the time control
+     */
+    public static TimeControl moveTime(long moveTimeMillis) {
+        return new TimeControl(moveTimeMillis, MAX_DEPTH);
+    }
+
+    /**
+     * Search to a fixed depth without a time limit.
+     * @param depth depth in plies
+     * @return the time control
+     */
+    public static TimeControl fixedDepth(int depth) {
+        return new TimeControl(0, depth);
+    }
+
+    /**
+     * Search until a number of nodes has been visited, without a time limit.
+     * @param nodes node budget
+     * @return the time control
+     */
+    public static TimeControl nodes(long nodes) {
+        return new TimeControl(0, MAX_DEPTH, nodes);
+    }
+
+    /**
+     * Search without any limit, until the search is stopped from outside.
+     * @return the time control
+     */
+    public static TimeControl infinite() {
+        return new TimeControl(0, MAX_DEPTH);
+    }
+
+    /**
+     * Budget one move from a game clock: a share of the remaining time plus the increment and the byoyomi.
+     * @param remainingMillis time left on the clock
+     * @param incrementMillis time added after every move (Fischer increment)
+     * @param byoyomiMillis time per move once the clock has run out
+     * @return the time control
+     */
+    public static TimeControl fromClock(long remainingMillis, long incrementMillis, long byoyomiMillis) {
+        long remaining = Math.max(0, remainingMillis);
+        long budget = remaining / MOVES_TO_GO + incrementMillis + byoyomiMillis;
+        // Never plan past the time that is really available
+        budget = Math.min(budget, remaining + byoyomiMillis) - OVERHEAD_MILLIS;
+        return moveTime(Math.max(1, budget));
+    }
+
+    /**
+     * Time control of a difficulty level: its search depth capped by its think time.
+     * @param difficulty the AI difficulty level
+     * @return the time control
+     */
+    public static TimeControl of(AIDifficulty difficulty) {
+        return new TimeControl(difficulty.getMoveTimeMillis(), difficulty.getSearchDepth());
+    }
+
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public boolean hasTimeLimit() {
+        return moveTimeMillis > 0;
+    }
+
+    public boolean hasNodeLimit() {
+        return maxNodes > 0;
+    }
+}
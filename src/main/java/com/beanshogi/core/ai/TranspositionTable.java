@@ -0,0 +1,187 @@
+package com.beanshogi.core.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.beanshogi.core.board.PackedMove;
+
+/**
+ * Fixed-size transposition table for the search, stored in two primitive arrays.
+ * Entries live in buckets of two slots: the first keeps the deepest result of the current search,
+ * the second is always overwritten, so deep results survive without blocking fresh ones.
+ * Each entry is one key word and one data word packing the best move, depth, bound type,
+ * generation and score. The key word is stored XOR-ed with the data word, so an entry torn by
+ * concurrent writers simply fails the key check - the table is shared by search threads without locks.
+ * @param keys key words (Zobrist key XOR data)
+ * @param data packed entry data
+ * @param mask index mask, the entry count is a power of two
+ * @param generation search counter used to age out entries of older searches
+ * @param hits number of successful probes
+ * @param misses number of failed probes
+ */
+public class TranspositionTable {
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;  // score is at least the stored value
+    public static final int BOUND_UPPER = 3;  // score is at most the stored value
+
+    // Bytes used by one entry (a key word and a data word)
+    private static final int ENTRY_BYTES = 16;
+
+    // Data word layout
+    private static final int MOVE_BITS = 24;
+    private static final int DEPTH_SHIFT = 24;
+    private static final int BOUND_SHIFT = 32;
+    private static final int GENERATION_SHIFT = 34;
+    private static final int SCORE_SHIFT = 40;
+    private static final int GENERATION_MASK = 0x3F;
+
+    /** Scores must stay within the 24-bit signed score field */
+    public static final int MAX_SCORE = (1 << 23) - 1;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private final int sizeMb;
+    private int generation;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a table using at most the given memory budget.
+     * @param sizeMb memory budget in megabytes (at least 1)
+     */
+    public TranspositionTable(int sizeMb) {
+        this.sizeMb = Math.max(1, sizeMb);
+        long budget = (long) this.sizeMb * 1024 * 1024 / ENTRY_BYTES;
+        // Round down to a power of two, capped to what a Java array can hold
+        int entries = Integer.highestOneBit((int) Math.min(budget, 1 << 30));
+        keys = new long[entries];
+        data = new long[entries];
+        mask = entries - 1;
+    }
+
+    public int getSizeMb() {
+        return sizeMb;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Start a new search: entries of older searches become preferred for replacement.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Remove every entry and reset the counters.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        generation = 0;
+        resetCounters();
+    }
+
+    /**
+     * Look up a position.
+     * @param key Zobrist key of the position
+     * @return the packed data word of the entry, 0 on a miss
+     */
+    public long probe(long key) {
+        int index = (int) key & mask & ~1;
+        for (int slot = index; slot <= index + 1; slot++) {
+            long entry = data[slot];
+            if ((keys[slot] ^ entry) == key && bound(entry) != BOUND_NONE) {
+                hits.increment();
+                return entry;
+            }
+        }
+        misses.increment();
+        return 0L;
+    }
+
+    /**
+     * Store a search result.
+     * @param key Zobrist key of the position
+     * @param move best move found, PackedMove.NONE keeps the move already stored for the position
+     * @param depth remaining search depth of the result
+     * @param bound one of the BOUND_ constants
+     * @param score score from the point of view of the side to move
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        int index = (int) key & mask & ~1;
+        int slot;
+        if ((keys[index] ^ data[index]) == key) {
+            slot = index;
+        } else if ((keys[index + 1] ^ data[index + 1]) == key) {
+            slot = index + 1;
+        } else {
+            // Depth-preferred slot takes the entry if it is deeper or left over from an older search
+            long deep = data[index];
+            boolean replaceDeep = bound(deep) == BOUND_NONE || generation(deep) != generation || depth >= depth(deep);
+            slot = replaceDeep ? index : index + 1;
+        }
+        if (move == PackedMove.NONE && (keys[slot] ^ data[slot]) == key) {
+            move = move(data[slot]);
+        }
+        long entry = (move & ((1L << MOVE_BITS) - 1))
+            | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | ((long) generation << GENERATION_SHIFT)
+            | ((long) score << SCORE_SHIFT);
+        data[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    /* Data word decoding */
+
+    public static int move(long entry) {
+        return (int) (entry & ((1L << MOVE_BITS) - 1));
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+    public static int score(long entry) {
+        // Arithmetic shift restores the sign of the score field
+        return (int) (entry >> SCORE_SHIFT);
+    }
+
+    /* Counters */
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the share of probes that found an entry.
+     * @return hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long probes = hitCount + misses.sum();
+        return probes == 0 ? 0.0 : (double) hitCount / probes;
+    }
+
+    public void resetCounters() {
+        hits.reset();
+        misses.reset();
+    }
+}
@@ -0,0 +1,105 @@
+package com.beanshogi.core.board;
+
+import com.beanshogi.core.util.Position;
+
+/**
+ * Static helpers for 81-square bitboards.
+ * A bitboard is split across two longs: the low word holds squares 0-63, the high word squares 64-80.
+ * Squares are indexed row by row, so square = y * 9 + x.
+ */
+public final class Bitboard {
+    public static final int SQUARES = 81;
+    public static final int FILES = 9;
+    public static final int RANKS = 9;
+
+    /** Valid bits of the high word */
+    public static final long HI_MASK = (1L << (SQUARES - 64)) - 1;
+
+    // Masks of every file (x column), split into low and high words
+    private static final long[] FILE_LO = new long[FILES];
+    private static final long[] FILE_HI = new long[FILES];
+
+    static {
+        for (int sq = 0; sq < SQUARES; sq++) {
+            int x = fileOf(sq);
+            if (sq < 64) {
+                FILE_LO[x] |= 1L << sq;
+            } else {
+                FILE_HI[x] |= 1L << (sq - 64);
+            }
+        }
+    }
+
+    private Bitboard() {}
+
+    public static int square(int x, int y) {
+        return y * FILES + x;
+    }
+
+    public static int square(Position pos) {
+        return pos.y * FILES + pos.x;
+    }
+
+    public static Position position(int sq) {
+        return new Position(fileOf(sq), rankOf(sq));
+    }
+
+    public static int fileOf(int sq) {
+        return sq % FILES;
+    }
+
+    public static int rankOf(int sq) {
+        return sq / FILES;
+    }
+
+    /**
+     * Checks whether a square lies in the promotion zone of a side (the three farthest ranks).
+     * @param sq square index
+     * @param side side index
+     * @return true if inside the zone
+     */
+    public static boolean inPromotionZone(int sq, int side) {
+        return side == 0 ? sq < 3 * FILES : sq >= 6 * FILES;
+    }
+
+    public static long fileLo(int x) {
+        return FILE_LO[x];
+    }
+
+    public static long fileHi(int x) {
+        return FILE_HI[x];
+    }
+
+    /**
+     * Checks whether a square is set in a split bitboard.
+     * @param lo low word
+     * @param hi high word
+     * @param sq square index
+     * @return true if the bit of the square is set
+     */
+    public static boolean test(long lo, long hi, int sq) {
+        return sq < 64 ? (lo & (1L << sq)) != 0 : (hi & (1L << (sq - 64))) != 0;
+    }
+
+    public static int popCount(long lo, long hi) {
+        return Long.bitCount(lo) + Long.bitCount(hi);
+    }
+
+    /**
+     * Get the lowest square set in the low word (the word must be non-zero).
+     * @param lo low word
+     * @return square index
+     */
+    public static int firstLo(long lo) {
+        return Long.numberOfTrailingZeros(lo);
+    }
+
+    /**
+     * Get the lowest square set in the high word (the word must be non-zero).
+     * @param hi high word
+     * @return square index
+     */
+    public static int firstHi(long hi) {
+        return 64 + Long.numberOfTrailingZeros(hi);
+    }
+}
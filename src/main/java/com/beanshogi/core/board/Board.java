@@ -1,15 +1,13 @@
 package com.beanshogi.core.board;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import com.beanshogi.core.game.Player;
 import com.beanshogi.core.game.Sides;
 import com.beanshogi.core.pieces.Piece;
+import com.beanshogi.core.pieces.PieceType;
 import com.beanshogi.core.pieces.normal.King;
-import com.beanshogi.core.pieces.normal.Knight;
-import com.beanshogi.core.pieces.normal.Pawn;
-import com.beanshogi.core.pieces.normal.slider.Lance;
+import com.beanshogi.core.util.Exceptions.PieceNotFoundException;
 import com.beanshogi.core.util.Exceptions.PlayerNotFoundException;
 import com.beanshogi.core.util.Position;
 
@@ -17,11 +15,13 @@ import com.beanshogi.core.util.Position;
  * Class representing a game board.
  * @param board 9x9 2D array for a shogi board.
  * @param kings a HashMap for the 2 kings represented on the board, so that they don't have to be searched for on the board
+ * @param state bitboard core mirroring the pieces and hands, used for occupancy and piece queries
  */
 public class Board {
     private final Piece[][] board = new Piece[9][9];
     private final Map<Sides, King> kings = new HashMap<>();
     private final List<Player> players;
+    private transient BoardState state = new BoardState();  // Transient, rebuilt from the pieces after loading
     public final MoveManager moveManager;
     public final Evals evals;
 
@@ -29,6 +29,48 @@ public class Board {
         this.moveManager = new MoveManager(this);
         this.evals = new Evals(this);
         this.players = players;
+        attachHands();
+    }
+
+    /**
+     * Get the bitboard core of the board.
+     * @return the primitive state mirroring this board
+     */
+    public BoardState getState() {
+        if (state == null) {
+            rebuildState();
+        }
+        return state;
+    }
+
+    /**
+     * Rebuild the bitboard core from the piece objects and player hands.
+     * Needed after deserialization, where transient fields are not restored.
+     */
+    public void rebuildState() {
+        int sideToMove = state != null ? state.getSideToMove() : 0;
+        state = new BoardState();
+        state.setSideToMove(sideToMove);
+        kings.clear();
+        for (int y = 0; y < 9; y++) {
+            for (int x = 0; x < 9; x++) {
+                Piece piece = board[x][y];
+                if (piece == null) {
+                    continue;
+                }
+                state.put(Bitboard.square(x, y), piece.getSide().ordinal(), piece.getType().ordinal());
+                if (piece instanceof King) {
+                    kings.put(piece.getSide(), (King) piece);
+                }
+            }
+        }
+        attachHands();
+    }
+
+    private void attachHands() {
+        for (Player player : players) {
+            player.getHandGrid().attach(state, player.getSide());
+        }
     }
 
     public List<Player> getPlayers() {
@@ -54,8 +96,12 @@ public class Board {
 
     public void setPiece(Position pos, Piece piece) {
         board[pos.x][pos.y] = piece;
+        BoardState core = getState();
+        int sq = Bitboard.square(pos);
+        core.remove(sq);
         if (piece != null) {
             piece.setBoardPosition(pos);
+            core.put(sq, piece.getSide().ordinal(), piece.getType().ordinal());
         }
         if (piece instanceof King) {
             kings.put(piece.getSide(), (King)piece);
@@ -67,13 +113,14 @@ public class Board {
         int y = pos.y;
         Piece removed = board[x][y];
         board[x][y] = null;
+        getState().remove(Bitboard.square(pos));
         if (removed instanceof King) {
             kings.remove(removed.getSide());
         }
     }
     
     public boolean isEmptyAt(Position pos) {
-        return board[pos.x][pos.y] == null;
+        return getState().isEmpty(Bitboard.square(pos));
     }
     
     public void clear() {
@@ -81,174 +128,177 @@ public class Board {
             Arrays.fill(board[i], null);
         }
         kings.clear();
+        getState().clear();
+        attachHands();
     }
 
-    // Get all pieces
-    public List<Piece> getAllPieces() {
-        List<Piece> pieces = new ArrayList<>();
-        for (Piece[] row : board) {
-            for (Piece piece : row) {
-                if (piece == null) {
-                    continue;
+    /**
+     * Replace the position with an SFEN position: pieces, hands and side to move.
+     * The move history is not touched, see Game for the move number.
+     * @param sfen the position, optionally prefixed with "sfen "
+     * @return the move number of the position
+     * @throws IllegalArgumentException if the string is no valid SFEN
+     */
+    public int loadSfen(CharSequence sfen) {
+        // Parse into a scratch core first, so an invalid string leaves the board as it was
+        BoardState parsed = new BoardState();
+        int moveNumber = Sfen.toState(sfen, parsed);
+        loadState(parsed);
+        return moveNumber;
+    }
+
+    /**
+     * Replace the position with the pieces, hands and side to move of a board core.
+     * The move history is not touched.
+     * @param position the position to set up, it is only read
+     */
+    public void loadState(BoardState position) {
+        for (Player player : players) {
+            player.getHandGrid().clear();
+        }
+        clear();
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int code = position.pieceAt(sq);
+            if (code != BoardState.EMPTY) {
+                Sides side = Sides.values()[BoardState.sideOf(code)];
+                setPiece(Bitboard.position(sq), PieceType.of(BoardState.typeOf(code)).create(side, null, null, this));
+            }
+        }
+        for (Player player : players) {
+            int side = player.getSide().ordinal();
+            for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+                for (int n = position.handCount(side, type); n > 0; n--) {
+                    player.getHandGrid().addPiece(PieceType.of(type).create(player.getSide(), null, null, this));
                 }
-                pieces.add(piece);
             }
         }
+        getState().setSideToMove(position.getSideToMove());
+    }
+
+    /**
+     * Write the position as SFEN.
+     * @param moveNumber the move number to write, 1 for the first move of a game
+     * @return the SFEN string
+     */
+    public String toSfen(int moveNumber) {
+        return Sfen.toSfen(getState(), moveNumber);
+    }
+
+    // Get all pieces by walking the occupancy bitboard instead of scanning every square
+    public List<Piece> getAllPieces() {
+        BoardState core = getState();
+        List<Piece> pieces = new ArrayList<>(core.pieceCount());
+        collectPieces(pieces, core.occupiedLo(), core.occupiedHi());
         return pieces;
     }
 
-    // Get pieces via stream and also filter for side
+    // Get pieces of a side from the side's occupancy bitboard
     public Collection<Piece> getPiecesOfSide(Sides side) {
-        return getAllPieces().stream()
-                    .filter(p -> p.getSide() == side)
-                    .collect(Collectors.toList());
+        BoardState core = getState();
+        long lo = core.occupiedLo(side.ordinal());
+        long hi = core.occupiedHi(side.ordinal());
+        List<Piece> pieces = new ArrayList<>(Bitboard.popCount(lo, hi));
+        collectPieces(pieces, lo, hi);
+        return pieces;
+    }
+
+    private void collectPieces(List<Piece> pieces, long lo, long hi) {
+        while (lo != 0) {
+            int sq = Bitboard.firstLo(lo);
+            lo &= lo - 1;
+            pieces.add(board[Bitboard.fileOf(sq)][Bitboard.rankOf(sq)]);
+        }
+        while (hi != 0) {
+            int sq = Bitboard.firstHi(hi);
+            hi &= hi - 1;
+            pieces.add(board[Bitboard.fileOf(sq)][Bitboard.rankOf(sq)]);
+        }
     }
 
     /**
      * Get legal drop points from hand on the board.
+     * Drops come from the legal move generator, so nifu, dead ranks, uchifuzume and check evasion are all respected.
      * @param pieceClass evaluated generic piece
      * @param pieceside side of evaluation
      * @return list of all legal drop points
      */
     public <T extends Piece> List<Position> getPieceDropPoints(Class<T> pieceClass, Sides pieceside) {
-        Set<Position> dropPoints = new HashSet<>();
-        boolean sideInCheck = evals.isKingInCheck(pieceside);
-        Player player = getPlayer(pieceside);
-        Piece handTemplate = null;
-        for (Piece hp : player.getHandPieces()) {
-            if (pieceClass.isInstance(hp)) { 
-                handTemplate = hp; break; 
+        HandGrid hand = getPlayer(pieceside).getHandGrid();
+        int type = -1;
+        for (int t = 0; t < PieceType.HAND_COUNT; t++) {
+            if (pieceClass.isInstance(hand.peek(t))) {
+                type = t;
+                break;
             }
         }
         // If no piece of that class in hand, no drop points
-        if (handTemplate == null) {
+        if (type < 0) {
             return Collections.emptyList();
         }
 
-        for (int y = 0; y < 9; y++) {
-            for (int x = 0; x < 9; x++) {
-            Position pos = new Position(x,y);
-                if (!isEmptyAt(pos)) {
-                    continue;
-                }
-                if (pieceClass == Pawn.class) {
-                    // Pawn specific rule (nifu): no two pawns in the same column
-                    boolean nifu = false;
-                    for (int i = 0; i < 9; i++) {
-                        Piece p = board[x][i];
-                        if (p instanceof Pawn && p.getSide() == pieceside) {
-                            nifu = true;
-                            break;
-                        }
-                    }
-                    // Pawns are on the same column, cannot move here
-                    if (nifu) {
-                        continue;
-                    }
-                    // Piece cannot be dropped past the drop zone
-                    if ((pieceside == Sides.SENTE && y == 0) || (pieceside == Sides.GOTE && y == 8)) {
-                        continue;
-                    }
-                    if (evals.violatesUchifuzume(pieceside, pos)) {
-                        continue;
-                    }
-                }   
-                if (pieceClass == Lance.class) {
-                    if ((pieceside == Sides.SENTE && y == 0) || (pieceside == Sides.GOTE && y == 8)) {
-                        continue;
-                    }
-                }
-                if (pieceClass == Knight.class) {
-                    if ((pieceside == Sides.SENTE && y <= 1) || (pieceside == Sides.GOTE && y >= 7)) {
-                        continue;
-                    }
-                }
-                // Simulate drop to ensure it does not leave king in check and (if currently in check) resolves it
-                if (!isLegalDrop(handTemplate, pieceside, pos, sideInCheck)) {
-                    continue;
-                }
-                dropPoints.add(pos);
+        List<Position> dropPoints = new ArrayList<>();
+        MoveList moves = evals.generateLegalMoves(pieceside);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.isDrop(move) && PackedMove.pieceType(move) == type) {
+                dropPoints.add(Bitboard.position(PackedMove.to(move)));
             }
         }
-        return new ArrayList<>(dropPoints);
+        return dropPoints;
     }
 
-    private boolean isLegalDrop(Piece handPiece, Sides side, Position target, boolean mustResolveCheck) {
-        Move dropMove = new Move(getPlayer(side), handPiece.getHandPosition(), target, handPiece, null, false, true);
-        moveManager.applyMove(dropMove);
-        boolean kingSafe = !evals.isKingInCheck(side);
-        boolean resolves = kingSafe;
-        moveManager.undoMove();
-        moveManager.getRedoStack().clear();
-        if (!kingSafe) return false;
-        if (mustResolveCheck && !resolves) return false;
-        return true;
-    }
-
-    /**
-     * Get a deep copy of a board
-     * @return copy of current board
-     */
     /**
-     * Checks if the last moves form a repetition (Sennichite).
-     * Returns true if the last 8 moves repeat (4 move cycle done twice).
+     * Checks if the current position is a repetition (Sennichite).
+     * Returns true once the same position (board, hands and side to move) has occurred four times.
      * @return true if repetition detected
      */
     public boolean isSennichite() {
-        Stack<Move> history = moveManager.getUndoStack();
-        if (history.size() < 8) {
-            return false;
-        }
-        
-        // Check if last 4 moves match the 4 moves before that
-        int size = history.size();
-        for (int i = 0; i < 4; i++) {
-            if (!history.get(size - 1 - i).equals(history.get(size - 5 - i))) {
-                return false;
+        return moveManager.isFourfoldRepetition();
+    }
+
+    /**
+     * Converts a packed move into a move referencing the actual pieces on this board.
+     * @param side the side making the move
+     * @param packedMove packed move from the move generator or the AI
+     * @return the move to apply with the move manager
+     * @throws PieceNotFoundException if the moved piece is not on the board or in hand
+     */
+    public Move unpackMove(Sides side, int packedMove) {
+        Player player = getPlayer(side);
+        Position to = Bitboard.position(PackedMove.to(packedMove));
+        if (PackedMove.isDrop(packedMove)) {
+            Piece handPiece = player.getHandGrid().peek(PackedMove.pieceType(packedMove));
+            if (handPiece == null) {
+                throw new PieceNotFoundException("The piece for the drop is not found in hand!");
             }
+            return new Move(player, handPiece.getHandPosition(), to, handPiece, null, false, true);
+        }
+
+        Position from = Bitboard.position(PackedMove.from(packedMove));
+        Piece movedPiece = getPiece(from);
+        if (movedPiece == null) {
+            throw new PieceNotFoundException("The piece for the move is not found on board!");
         }
-        return true;
+        return new Move(player, from, to, movedPiece, null, PackedMove.isPromotion(packedMove), false);
     }
 
+    /**
+     * Get a deep copy of a board, with new players and pieces.
+     * Searches don't need the piece graph, they copy getState() into a reused BoardState instead.
+     * @return copy of current board
+     */
     public Board copy() {
         // Create new player list and board so players/hands are not shared between copies
         List<Player> newPlayers = new ArrayList<>();
-        Board newBoard = new Board(newPlayers);
 
         // Create empty player instances corresponding to original players
         for (Player p : this.players) {
             Player np = new Player(p.getSide(), p.getName(), p.getType(), p.getDifficulty());
             newPlayers.add(np);
         }
-
-        // Copy board pieces into newBoard
-        for (int y = 0; y < 9; y++) {
-            for (int x = 0; x < 9; x++) {
-                Piece p = this.board[x][y];
-                if (p != null) {
-                    Piece clone = p.cloneForBoard(newBoard);
-                    clone.setBoardPosition(new Position(x, y)); // make sure position is correct
-                    newBoard.setPiece(clone.getBoardPosition(), clone);
-                    if (clone instanceof King) {
-                        newBoard.kings.put(clone.getSide(), (King) clone);
-                    }
-                }
-            }
-        }
-
-        // Copy captured pieces (player hands) into their corresponding new players
-        for (Player orig : this.players) {
-            Player target = newBoard.getPlayer(orig.getSide());
-            HandGrid origGrid = orig.getHandGrid();
-            HandGrid targetGrid = target.getHandGrid();
-            
-            // Deep copy the hand grid
-            HandGrid copiedGrid = origGrid.copy(newBoard);
-            // Replace the target's hand grid
-            for (Piece piece : copiedGrid.getAllPieces()) {
-                targetGrid.addPiece(piece);
-            }
-        }
+        // Pieces are plain (type, side) codes in the core, so the copy is rebuilt from it
+        Board newBoard = new Board(newPlayers);
+        newBoard.loadState(getState());
 
         return newBoard;
     }
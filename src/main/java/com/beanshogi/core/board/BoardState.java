@@ -0,0 +1,391 @@
+package com.beanshogi.core.board;
+
+import java.util.Arrays;
+
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Primitive board core kept in sync with the object board.
+ * Every (side, piece type) pair owns a bitboard split across two longs, squares carry a one byte
+ * piece code and hands are stored as small counters, so occupancy and piece queries are bit operations.
+ * Sides are indexed by Sides.ordinal() and types by PieceType.ordinal().
+ * @param squares piece code of every square (0 when empty)
+ * @param pieceLo low bitboard words, indexed by side * PieceType.COUNT + type
+ * @param pieceHi high bitboard words, indexed like pieceLo
+ * @param occupiedLo low words of the per-side occupancy
+ * @param occupiedHi high words of the per-side occupancy
+ * @param hand hand counters, indexed by side * PieceType.HAND_COUNT + type
+ * @param kingSquare square of each side's king (-1 if not on board)
+ * @param sideToMove side index making the next move in make/unmake
+ * @param key Zobrist key of the position (squares, hands and side to move), updated incrementally
+ * @param attacks number of pieces of each side attacking every square, indexed by side * 81 + square,
+ * updated incrementally by put and remove (including slider rays opened or closed by the square)
+ * @param pieceSquare sum of the PieceSquareScores of all pieces on the board, seen from each side,
+ * updated incrementally by put and remove
+ */
+public class BoardState {
+    public static final int EMPTY = 0;
+
+    private final byte[] squares = new byte[Bitboard.SQUARES];
+    private final long[] pieceLo = new long[2 * PieceType.COUNT];
+    private final long[] pieceHi = new long[2 * PieceType.COUNT];
+    private final long[] occupiedLo = new long[2];
+    private final long[] occupiedHi = new long[2];
+    private final int[] hand = new int[2 * PieceType.HAND_COUNT];
+    private final byte[] attacks = new byte[2 * Bitboard.SQUARES];
+    private final int[] kingSquare = {-1, -1};
+    private final int[] pieceSquare = new int[2];
+    private int sideToMove;
+    private long key;
+
+    /**
+     * Pack a side and a type into a square code.
+     * @param side side index
+     * @param type type index
+     * @return non-zero piece code
+     */
+    public static int code(int side, int type) {
+        return (side << 4) | (type + 1);
+    }
+
+    public static int sideOf(int code) {
+        return code >> 4;
+    }
+
+    public static int typeOf(int code) {
+        return (code & 15) - 1;
+    }
+
+    /**
+     * Place a piece on an empty square.
+     * @param sq target square
+     * @param side owner side index
+     * @param type piece type index
+     */
+    public void put(int sq, int side, int type) {
+        updateRaysThrough(sq, -1);
+        squares[sq] = (byte) code(side, type);
+        key ^= Zobrist.piece(side, type, sq);
+        pieceSquare[0] += PieceSquareScores.score(0, side, type, sq);
+        pieceSquare[1] += PieceSquareScores.score(1, side, type, sq);
+        int index = side * PieceType.COUNT + type;
+        if (sq < 64) {
+            long bit = 1L << sq;
+            pieceLo[index] |= bit;
+            occupiedLo[side] |= bit;
+        } else {
+            long bit = 1L << (sq - 64);
+            pieceHi[index] |= bit;
+            occupiedHi[side] |= bit;
+        }
+        if (type == PieceType.KING.ordinal()) {
+            kingSquare[side] = sq;
+        }
+        updatePieceAttacks(sq, side, type, 1);
+    }
+
+    /**
+     * Remove the piece standing on a square.
+     * @param sq square to clear
+     * @return code of the removed piece, EMPTY if there was none
+     */
+    public int remove(int sq) {
+        int code = squares[sq];
+        if (code == EMPTY) {
+            return EMPTY;
+        }
+        int side = sideOf(code);
+        int type = typeOf(code);
+        updatePieceAttacks(sq, side, type, -1);
+        squares[sq] = EMPTY;
+        key ^= Zobrist.piece(side, type, sq);
+        pieceSquare[0] -= PieceSquareScores.score(0, side, type, sq);
+        pieceSquare[1] -= PieceSquareScores.score(1, side, type, sq);
+        int index = side * PieceType.COUNT + type;
+        if (sq < 64) {
+            long bit = ~(1L << sq);
+            pieceLo[index] &= bit;
+            occupiedLo[side] &= bit;
+        } else {
+            long bit = ~(1L << (sq - 64));
+            pieceHi[index] &= bit;
+            occupiedHi[side] &= bit;
+        }
+        if (type == PieceType.KING.ordinal() && kingSquare[side] == sq) {
+            kingSquare[side] = -1;
+        }
+        updateRaysThrough(sq, 1);
+        return code;
+    }
+
+    /* Attack maps */
+
+    /**
+     * Get the number of pieces of a side attacking a square.
+     * @param side attacking side index
+     * @param sq square index
+     * @return attacker count, 0 if the square is safe from the side
+     */
+    public int attackCount(int side, int sq) {
+        return attacks[side * Bitboard.SQUARES + sq];
+    }
+
+    /**
+     * Checks whether the king of a side is attacked.
+     * @param side side index of the king
+     * @return true if the king stands on a square attacked by the opponent
+     */
+    public boolean isInCheck(int side) {
+        int king = kingSquare[side];
+        return king >= 0 && attacks[(side ^ 1) * Bitboard.SQUARES + king] > 0;
+    }
+
+    // Add (delta 1) or take away (delta -1) the attacks of a piece standing on a square
+    private void updatePieceAttacks(int sq, int side, int type, int delta) {
+        int base = side * Bitboard.SQUARES;
+        int index = MoveTables.index(side, type, sq);
+        for (int target : MoveTables.steps(index)) {
+            attacks[base + target] += delta;
+        }
+        for (int[] ray : MoveTables.rays(index)) {
+            for (int target : ray) {
+                attacks[base + target] += delta;
+                if (squares[target] != EMPTY) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Sliders whose rays cross a square get cut behind it when a piece lands there (delta -1)
+    // and reach further when the square is vacated (delta 1)
+    private void updateRaysThrough(int sq, int delta) {
+        for (int dir = 0; dir < 8; dir++) {
+            // Find the first piece behind the square (DELTAS pairs up as i / 7 - i)
+            int code = EMPTY;
+            for (int at : MoveTables.line(7 - dir, sq)) {
+                code = squares[at];
+                if (code != EMPTY) {
+                    break;
+                }
+            }
+            if (code == EMPTY) {
+                continue;
+            }
+            int side = sideOf(code);
+            if ((MoveGenerator.SLIDE_ATTACKERS[side][dir] & (1 << typeOf(code))) == 0) {
+                continue;
+            }
+            int base = side * Bitboard.SQUARES;
+            for (int target : MoveTables.line(dir, sq)) {
+                attacks[base + target] += delta;
+                if (squares[target] != EMPTY) {
+                    break;
+                }
+            }
+        }
+    }
+
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+    public boolean isEmpty(int sq) {
+        return !Bitboard.test(occupiedLo[0] | occupiedLo[1], occupiedHi[0] | occupiedHi[1], sq);
+    }
+
+    public long piecesLo(int side, int type) {
+        return pieceLo[side * PieceType.COUNT + type];
+    }
+
+    public long piecesHi(int side, int type) {
+        return pieceHi[side * PieceType.COUNT + type];
+    }
+
+    public long occupiedLo(int side) {
+        return occupiedLo[side];
+    }
+
+    public long occupiedHi(int side) {
+        return occupiedHi[side];
+    }
+
+    public long occupiedLo() {
+        return occupiedLo[0] | occupiedLo[1];
+    }
+
+    public long occupiedHi() {
+        return occupiedHi[0] | occupiedHi[1];
+    }
+
+    public int pieceCount() {
+        return Bitboard.popCount(occupiedLo(), occupiedHi());
+    }
+
+    public int kingSquare(int side) {
+        return kingSquare[side];
+    }
+
+    /**
+     * Checks the nifu condition: whether the side already has an unpromoted pawn on a file.
+     * @param side side index
+     * @param x file (column) index
+     * @return true if a pawn of the side stands on the file
+     */
+    public boolean hasPawnOnFile(int side, int x) {
+        int pawn = PieceType.PAWN.ordinal();
+        return (piecesLo(side, pawn) & Bitboard.fileLo(x)) != 0
+            || (piecesHi(side, pawn) & Bitboard.fileHi(x)) != 0;
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int side) {
+        if (side != sideToMove) {
+            key ^= Zobrist.side();
+        }
+        this.sideToMove = side;
+    }
+
+    /**
+     * Get the running sum of the material, centre and promotion zone terms of the pieces on the board.
+     * @param side side index the score is seen from
+     * @return the sum, positive when the side is ahead
+     */
+    public int pieceSquareScore(int side) {
+        return pieceSquare[side];
+    }
+
+    /**
+     * Get the Zobrist key of the position.
+     * @return 64-bit key covering board squares, hand counts and side to move
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /* Make/unmake of packed moves */
+
+    /**
+     * Apply a packed move for the side to move and pass the turn.
+     * Captures go to the mover's hand demoted, the captured type stays in the move for unmakeMove.
+     * @param move packed move
+     */
+    public void makeMove(int move) {
+        int side = sideToMove;
+        int to = PackedMove.to(move);
+        int type = PackedMove.pieceType(move);
+        if (PackedMove.isDrop(move)) {
+            removeFromHand(side, type);
+            put(to, side, type);
+        } else {
+            int capturedType = PackedMove.capturedType(move);
+            if (capturedType >= 0) {
+                remove(to);
+                addToHand(side, PieceType.demote(capturedType));
+            }
+            remove(PackedMove.from(move));
+            put(to, side, PackedMove.resultType(move));
+        }
+        sideToMove = side ^ 1;
+        key ^= Zobrist.side();
+    }
+
+    /**
+     * Take back a packed move previously applied with makeMove.
+     * @param move packed move
+     */
+    public void unmakeMove(int move) {
+        int side = sideToMove ^ 1;
+        int to = PackedMove.to(move);
+        int type = PackedMove.pieceType(move);
+        remove(to);
+        if (PackedMove.isDrop(move)) {
+            addToHand(side, type);
+        } else {
+            put(PackedMove.from(move), side, type);
+            int capturedType = PackedMove.capturedType(move);
+            if (capturedType >= 0) {
+                removeFromHand(side, PieceType.demote(capturedType));
+                put(to, side ^ 1, capturedType);
+            }
+        }
+        sideToMove = side;
+        key ^= Zobrist.side();
+    }
+
+    /* Hand counters */
+
+    public int handCount(int side, int type) {
+        return hand[side * PieceType.HAND_COUNT + type];
+    }
+
+    public void addToHand(int side, int type) {
+        int index = side * PieceType.HAND_COUNT + type;
+        int count = hand[index]++;
+        key ^= Zobrist.hand(side, type, count) ^ Zobrist.hand(side, type, count + 1);
+    }
+
+    public void removeFromHand(int side, int type) {
+        int index = side * PieceType.HAND_COUNT + type;
+        int count = hand[index]--;
+        key ^= Zobrist.hand(side, type, count) ^ Zobrist.hand(side, type, count - 1);
+    }
+
+    public boolean isHandEmpty(int side) {
+        for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+            if (handCount(side, type) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clearHand(int side) {
+        for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+            key ^= Zobrist.hand(side, type, handCount(side, type));
+        }
+        Arrays.fill(hand, side * PieceType.HAND_COUNT, (side + 1) * PieceType.HAND_COUNT, 0);
+    }
+
+    /**
+     * Remove every piece from the board and both hands.
+     */
+    public void clear() {
+        Arrays.fill(squares, (byte) EMPTY);
+        Arrays.fill(pieceLo, 0L);
+        Arrays.fill(pieceHi, 0L);
+        Arrays.fill(occupiedLo, 0L);
+        Arrays.fill(occupiedHi, 0L);
+        Arrays.fill(hand, 0);
+        Arrays.fill(attacks, (byte) 0);
+        kingSquare[0] = -1;
+        kingSquare[1] = -1;
+        pieceSquare[0] = 0;
+        pieceSquare[1] = 0;
+        sideToMove = 0;
+        key = 0L;
+    }
+
+    /**
+     * Overwrite this state with the contents of another one, without allocating.
+     * @param other the state to copy
+     */
+    public void copyFrom(BoardState other) {
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        System.arraycopy(other.pieceLo, 0, pieceLo, 0, pieceLo.length);
+        System.arraycopy(other.pieceHi, 0, pieceHi, 0, pieceHi.length);
+        System.arraycopy(other.occupiedLo, 0, occupiedLo, 0, occupiedLo.length);
+        System.arraycopy(other.occupiedHi, 0, occupiedHi, 0, occupiedHi.length);
+        System.arraycopy(other.hand, 0, hand, 0, hand.length);
+        System.arraycopy(other.attacks, 0, attacks, 0, attacks.length);
+        kingSquare[0] = other.kingSquare[0];
+        kingSquare[1] = other.kingSquare[1];
+        pieceSquare[0] = other.pieceSquare[0];
+        pieceSquare[1] = other.pieceSquare[1];
+        sideToMove = other.sideToMove;
+        key = other.key;
+    }
+}
@@ -3,19 +3,26 @@ package com.beanshogi.core.board;
 import java.util.*;
 
 import com.beanshogi.core.game.CheckEvent;
-import com.beanshogi.core.game.Player;
 import com.beanshogi.core.game.Sides;
 import com.beanshogi.core.pieces.Piece;
+import com.beanshogi.core.pieces.PieceType;
 import com.beanshogi.core.pieces.normal.King;
-import com.beanshogi.core.pieces.normal.Pawn;
 import com.beanshogi.core.util.Position;
 
 /**
  * Class defining board evaluation methods
+ * Legality questions are answered by the legal move generator on the board core, so the pieces are never moved to test a move.
+ * Queries never write to the live board core, so they are safe while a search reads it.
  * @param board the board on which evaluation is done
+ * @param generator legal move generator, created on first use
+ * @param legalMoves reusable buffer for the generated moves
+ * @param query scratch copy of the board core for queries about the side not to move, reset in place
  */
 public class Evals {
     private transient Board board;  // Mark as transient to prevent circular reference in JSON
+    private transient MoveGenerator generator;  // Transient scratch state, created on first use
+    private transient MoveList legalMoves;
+    private transient BoardState query;
 
     public Evals(Board board) {
         this.board = board;
@@ -23,17 +30,20 @@ public class Evals {
 
     /**
      * Get the list of attackers checking the king for the given side.
+     * The attack map answers whether there is a check at all, attackers are only looked up when there is one.
      * @param side the side whose king we want to evaluate
      * @return the list of pieces checking that king
      */
     public List<CheckEvent> kingChecks(Sides side) {
         List<CheckEvent> checks = new ArrayList<>();
         King king = board.getKing(side);
-        if (king == null) {
+        BoardState state = board.getState();
+        if (king == null || !state.isInCheck(side.ordinal())) {
             return checks;
         }
+        int kingSquare = state.kingSquare(side.ordinal());
         for (Piece piece : board.getPiecesOfSide(side.getOpposite())) {
-            if (piece.getAttackMoves().contains(king.getBoardPosition())) {
+            if (MoveGenerator.attacks(state, Bitboard.square(piece.getBoardPosition()), kingSquare)) {
                 checks.add(new CheckEvent(piece, king));
             }
         }
@@ -57,16 +67,38 @@ public class Evals {
      * @return king in check or not
      */
     public boolean isKingInCheck() {
-        return !kingChecks().isEmpty();
+        return isKingInCheck(Sides.SENTE) || isKingInCheck(Sides.GOTE);
     }
 
     /**
-     * Checks whether the specified king is currently in check.
+     * Checks whether the specified king is currently in check - a lookup in the attack map.
      * @param side the side whose king should be tested
      * @return king in check or not
      */
     public boolean isKingInCheck(Sides side) {
-        return !kingChecks(side).isEmpty();
+        return board.getState().isInCheck(side.ordinal());
+    }
+
+    /**
+     * Generate the legal moves of a side on the board core.
+     * For the side not to move the core is copied into the scratch state first, the live core is only read.
+     * @param side the side to generate moves for
+     * @return the reused list of packed legal moves, valid until the next call
+     */
+    MoveList generateLegalMoves(Sides side) {
+        if (generator == null) {
+            generator = new MoveGenerator();
+            legalMoves = new MoveList();
+            query = new BoardState();
+        }
+        BoardState state = board.getState();
+        if (state.getSideToMove() != side.ordinal()) {
+            query.copyFrom(state);
+            query.setSideToMove(side.ordinal());
+            state = query;
+        }
+        generator.generateLegal(state, legalMoves);
+        return legalMoves;
     }
 
     /**
@@ -77,37 +109,31 @@ public class Evals {
      * @return list of legal destination positions that don't leave the king in check
      */
     public List<Position> getFilteredLegalMoves(Piece piece) {
-        Sides side = piece.getSide();
         List<Position> filtered = new ArrayList<>();
-
         Position from = piece.getBoardPosition();
-        for (Position to : piece.getLegalMoves()) {
-            // Simulate without promotion
-            boolean canPromote = piece.canPromote() && (from.inPromotionZone(side) || to.inPromotionZone(side));
-            boolean mustPromote = canPromote && piece.shouldPromote(from, to);
-
-            boolean resolves = false;
-            // Try unpromoted variant first (if allowed)
-            if (!mustPromote) {
-                if (isMoveLegal(piece, from, to, false)) {
-                    resolves = true;
-                }
-            }
-            // Try promoted variant if promotion is possible and not yet resolved
-            if (canPromote && !resolves) {
-                if (isMoveLegal(piece, from, to, true)) {
-                    resolves = true;
-                }
+        if (from == null) {
+            return filtered;
+        }
+        int fromSq = Bitboard.square(from);
+        MoveList moves = generateLegalMoves(piece.getSide());
+        // Promotion variants of a move are generated next to each other, so one destination check dedupes them
+        int lastTo = -1;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.isDrop(move) || PackedMove.from(move) != fromSq) {
+                continue;
             }
-            if (resolves) {
-                filtered.add(to);
+            int to = PackedMove.to(move);
+            if (to != lastTo) {
+                filtered.add(Bitboard.position(to));
+                lastTo = to;
             }
         }
         return filtered;
     }
 
     /**
-     * Helper to test a move on a simulated board to verify it doesn't leave the king in check.
+     * Checks whether a move is legal (doesn't leave own king in check).
      * The real board position remains untouched.
      * @param piece the piece to move
      * @param from the starting position
@@ -119,56 +145,17 @@ public class Evals {
         if (piece == null || from == null || to == null) {
             return false;
         }
-        Piece captured = board.getPiece(to);
-        Move move = new Move(board.getPlayer(piece.getSide()), from, to, piece, captured, promote, false);
-
-        boolean applied = false;
-        boolean kingSafe = false;
-        try {
-            board.moveManager.applyMove(move);
-            applied = true;
-            kingSafe = !isKingInCheck(piece.getSide());
-        } finally {
-            if (applied) {
-                board.moveManager.undoMove();
+        int fromSq = Bitboard.square(from);
+        int toSq = Bitboard.square(to);
+        MoveList moves = generateLegalMoves(piece.getSide());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!PackedMove.isDrop(move) && PackedMove.from(move) == fromSq && PackedMove.to(move) == toSq
+                    && PackedMove.isPromotion(move) == promote) {
+                return true;
             }
         }
-        return kingSafe;
-    }
-
-    /**
-     * Simulates a piece drop to check if it would leave the side's king safe.
-     * @param pieceClass the class of the piece to drop
-     * @param side the side performing the drop
-     * @param dropPos the position where the piece would be dropped
-     * @return true if the drop would leave the king safe, false otherwise
-     */
-    private boolean simulateDropCheck(Class<? extends Piece> pieceClass, Sides side, Position dropPos) {
-        Player player = board.getPlayer(side);
-        Piece handPiece = null;
-        for (Piece p : player.getHandPieces()) {
-            if (pieceClass.isInstance(p)) {
-                handPiece = p;
-                break;
-            }
-        }
-        if (handPiece == null) {
-            return false;
-        }
-        Move dropMove = new Move(player, handPiece.getHandPosition(), dropPos, handPiece, null, false, true);
-
-        boolean applied = false;
-        boolean kingSafe = false;
-        try {
-            board.moveManager.applyMove(dropMove);
-            applied = true;
-            kingSafe = !isKingInCheck(side);
-        } finally {
-            if (applied) {
-                board.moveManager.undoMove();
-            }
-        }
-        return kingSafe;
+        return false;
     }
 
     /**
@@ -180,70 +167,24 @@ public class Evals {
         if (!isKingInCheck(side)) {
             return false; // not in check -> cannot be checkmate
         }
-        // Any legal move that leaves king safe ends checkmate test early.
-        for (Piece piece : board.getPiecesOfSide(side)) {
-            Position from = piece.getBoardPosition();
-            if (from == null) continue;
-            for (Position to : piece.getLegalMoves()) {
-                boolean canPromote = piece.canPromote() && (from.inPromotionZone(side) || to.inPromotionZone(side));
-                boolean mustPromote = canPromote && piece.shouldPromote(from, to);
-                // Unpromoted
-                if (!mustPromote && isMoveLegal(piece, from, to, false)) {
-                    return false;
-                }
-                // Promoted variant
-                if (canPromote && isMoveLegal(piece, from, to, true)) {
-                    return false;
-                }
-            }
-        }
-        // Drops
-        Player player = board.getPlayer(side);
-        for (Piece handPiece : player.getHandPieces()) {
-            for (Position dropPos : board.getPieceDropPoints(handPiece.getClass(), side)) {
-                if (simulateDropCheck(handPiece.getClass(), side, dropPos)) {
-                    return false;
-                }
-            }
-        }
-        return true; // no legal resolving moves
+        // Any legal move (evasion) ends the checkmate test
+        return generateLegalMoves(side).isEmpty();
     }
 
     /**
      * Function to evaluate if a drop is uchifuzume - a pawn drop that would deliver a checkmate. If so, it's illegal.
+     * The drop is not played, see MoveGenerator.isUchifuzume.
      * @param dropSide The side of evaluation
      * @param dropPos The target position of drop
      * @return true if illegal drop, false otherwise.
      */
     public boolean violatesUchifuzume(Sides dropSide, Position dropPos) {
-        Player dropPlayer = board.getPlayer(dropSide);
-
-        Piece dropPiece = null;
-        for (Piece handPiece : dropPlayer.getHandPieces()) {
-            if (handPiece instanceof Pawn) {
-                dropPiece = handPiece;
-                break;
-            }
-        }
-
-        if (dropPiece == null) {
+        BoardState state = board.getState();
+        int side = dropSide.ordinal();
+        if (state.handCount(side, PieceType.PAWN.ordinal()) == 0) {
             return false; // No pawn in hand to drop
         }
-        
-        Move dropMove = new Move(dropPlayer, dropPiece.getHandPosition(), dropPos, dropPiece, null, false, true);
-
-        boolean applied = false;
-        boolean isMate = false;
-        try {
-            board.moveManager.applyMove(dropMove);
-            applied = true;
-            Sides opponent = dropSide.getOpposite();
-            isMate = isKingInCheck(opponent) && isCheckMate(opponent);
-        } finally {
-            if (applied) {
-                board.moveManager.undoMove();
-            }
-        }
-        return isMate;
+        int sq = Bitboard.square(dropPos);
+        return state.isEmpty(sq) && MoveGenerator.isUchifuzume(state, side, sq);
     }
 }
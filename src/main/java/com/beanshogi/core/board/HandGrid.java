@@ -3,119 +3,225 @@ package com.beanshogi.core.board;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import com.beanshogi.core.util.Exceptions;
 import com.beanshogi.core.util.Position;
 import com.beanshogi.core.game.Sides;
 import com.beanshogi.core.pieces.Piece;
+import com.beanshogi.core.pieces.PieceType;
 
 /**
- * Represents a 4x5 grid for storing captured pieces (hand pieces).
- * Provides both a flat list interface and operations for abstracting underlying grid structure.
+ * Represents the captured pieces (hand pieces) of a player, kept as one stack per hand piece type.
+ * Adding, removing and counting are constant time per type, and the counts mirror into the board core
+ * where search and drop generation read them.
+ * The 4x5 grid the hand panels show is only a layout derived from the stacks: the types are laid out from the
+ * most to the least valuable, one cell per piece, and when the cells run out the remaining pieces of a type
+ * share the cell of the previous one.
+ * @param stacks pieces of every hand type (PieceType index), the first counts[type] entries are used
+ * @param counts number of pieces per hand type
+ * @param size total number of pieces in hand
+ * @param grid layout of JSON saves from earlier versions, moved into the stacks when the board attaches the hand
  */
 public class HandGrid {
     private static final int ROWS = 4;
     private static final int COLS = 5;
-    
-    private final Piece[][] grid = new Piece[ROWS][COLS];
+    private static final int CELLS = ROWS * COLS;
+
+    // Layout order: rook, bishop, gold, silver, knight, lance, pawn
+    private static final int[] LAYOUT_ORDER = {
+        PieceType.ROOK.ordinal(), PieceType.BISHOP.ordinal(), PieceType.GOLD.ordinal(), PieceType.SILVER.ordinal(),
+        PieceType.KNIGHT.ordinal(), PieceType.LANCE.ordinal(), PieceType.PAWN.ordinal()
+    };
+
+    private final Piece[][] stacks = new Piece[PieceType.HAND_COUNT][2];
+    private final int[] counts = new int[PieceType.HAND_COUNT];
+    private int size;
+    private Piece[][] grid;
+
+    // Hand counters of the board core this grid mirrors into (transient, reattached by the board)
+    private transient BoardState state;
+    private transient Sides owner;
 
     /**
-     * Add a piece to the next available position in the grid.
-     * Sets the piece's hand position and clears its board position.
-     * @param piece the piece to add
+     * Link the grid to the board core so that hand counters follow every change of the grid.
+     * @param state the board core to keep in sync
+     * @param owner the side owning this hand
      */
-    public void addPiece(Piece piece) {
-        for (int x = 0; x < ROWS; x++) {
-            for (int y = 0; y < COLS; y++) {
-                if (grid[x][y] == null) {
-                    grid[x][y] = piece;
-                    piece.setHandPosition(new Position(y, x));
-                    piece.setBoardPosition(null);
-                    return;
+    void attach(BoardState state, Sides owner) {
+        migrateLegacyGrid();
+        this.state = state;
+        this.owner = owner;
+        state.clearHand(owner.ordinal());
+        for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+            for (int n = counts[type]; n > 0; n--) {
+                state.addToHand(owner.ordinal(), type);
+            }
+        }
+    }
+
+    private void migrateLegacyGrid() {
+        if (grid == null) {
+            return;
+        }
+        Piece[][] legacy = grid;
+        grid = null;
+        for (Piece[] row : legacy) {
+            for (Piece piece : row) {
+                if (piece != null) {
+                    addPiece(piece);
                 }
             }
         }
-        // Should never get called, as the hand can fit up to 20 pieces.
-        throw new Exceptions.HandFullException("No more pieces can be added to hand");
     }
 
     /**
-     * Remove a piece from the hand (from any position in the grid)
+     * Add a piece to the stack of its type.
+     * Clears the piece's board position, the hand position follows from the layout.
+     * @param piece the piece to add, an unpromoted hand type
+     */
+    public void addPiece(Piece piece) {
+        int type = piece.getType().ordinal();
+        if (counts[type] == stacks[type].length) {
+            stacks[type] = Arrays.copyOf(stacks[type], counts[type] * 2);
+        }
+        stacks[type][counts[type]++] = piece;
+        size++;
+        piece.setBoardPosition(null);
+        if (state != null) {
+            state.addToHand(owner.ordinal(), type);
+        }
+        layout();
+    }
+
+    /**
+     * Remove a piece from the hand
      * @param piece the piece to remove
      * @return true if piece was found and removed, false otherwise
      */
     public boolean removePiece(Piece piece) {
-        for (int x = 0; x < ROWS; x++) {
-            for (int y = 0; y < COLS; y++) {
-                if (grid[x][y] == piece) {
-                    grid[x][y] = null;
-                    piece.setHandPosition(null);
-                    return true;
-                }
+        int type = piece.getType().ordinal();
+        if (type >= PieceType.HAND_COUNT) {
+            return false;
+        }
+        Piece[] stack = stacks[type];
+        for (int i = counts[type] - 1; i >= 0; i--) {
+            if (stack[i] == piece) {
+                removeAt(type, i);
+                return true;
             }
         }
         return false;
     }
 
+    // Remove the piece at an index of a stack, keeping the order of the others
+    private Piece removeAt(int type, int index) {
+        Piece[] stack = stacks[type];
+        Piece piece = stack[index];
+        System.arraycopy(stack, index + 1, stack, index, counts[type] - index - 1);
+        stack[--counts[type]] = null;
+        size--;
+        piece.setHandPosition(null);
+        if (state != null) {
+            state.removeFromHand(owner.ordinal(), type);
+        }
+        layout();
+        return piece;
+    }
+
+    // Give every piece its cell, see the class comment
+    private void layout() {
+        int types = 0;
+        for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+            if (counts[type] > 0) {
+                types++;
+            }
+        }
+        // Cells left once every type in hand has its first one
+        int spare = CELLS - types;
+        int cell = -1;
+        for (int type : LAYOUT_ORDER) {
+            for (int i = 0; i < counts[type]; i++) {
+                if (i == 0) {
+                    cell++;
+                } else if (spare > 0) {
+                    spare--;
+                    cell++;
+                }
+                Piece piece = stacks[type][i];
+                Position current = piece.getHandPosition();
+                if (current == null || current.x != cell % COLS || current.y != cell / COLS) {
+                    piece.setHandPosition(new Position(cell % COLS, cell / COLS));
+                }
+            }
+        }
+    }
+
     /**
-     * Remove a piece from a specific grid position (for rendering/UI purposes)
-     * @param x the x index
-     * @param y the yumn index
+     * Remove the piece shown at a grid position (for rendering/UI purposes)
+     * @param pos the grid position
      * @return the removed piece, or null if position was empty
      */
     public Piece removePieceAt(Position pos) {
-        if (isValidPosition(pos)) {
-            Piece piece = grid[pos.x][pos.y];
-            grid[pos.x][pos.y] = null;
-            return piece;
+        for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+            for (int i = counts[type] - 1; i >= 0; i--) {
+                if (pos.equals(stacks[type][i].getHandPosition())) {
+                    return removeAt(type, i);
+                }
+            }
         }
         return null;
     }
 
     /**
-     * Get a piece at a specific grid position (for rendering/UI purposes)
-     * @param x the x index
-     * @param y the y index
+     * Get the piece shown at a grid position (for rendering/UI purposes)
+     * @param pos the grid position
      * @return the piece at that position, or null if empty
      */
     public Piece getPieceAt(Position pos) {
-        if (isValidPosition(pos)) {
-            return grid[pos.x][pos.y];
+        for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+            for (int i = counts[type] - 1; i >= 0; i--) {
+                if (pos.equals(stacks[type][i].getHandPosition())) {
+                    return stacks[type][i];
+                }
+            }
         }
         return null;
     }
 
     /**
-     * Validate grid coordinates
-     * @param x the x index
-     * @param y the y index
-     * @return true if coordinates are within bounds
+     * Check if a grid position shows a piece
+     * @param pos the grid position
+     * @return true if position is valid and contains a piece
+     */
+    public boolean hasPiece(Position pos) {
+        return getPieceAt(pos) != null;
+    }
+
+    /**
+     * Get the number of pieces of a type in hand.
+     * @param type type index
+     * @return number of pieces, 0 for types that can't be held in hand
      */
-    private boolean isValidPosition(Position position) {
-        return position.x >= 0 && position.x < ROWS && position.y >= 0 && position.y < COLS;
+    public int count(int type) {
+        return type < PieceType.HAND_COUNT ? counts[type] : 0;
     }
 
     /**
-     * Check if a grid position is valid and contains a piece
-     * @param x the x index
-     * @param y the y index
-     * @return true if position is valid and contains a piece
+     * Get the piece of a type that is dropped next.
+     * @param type type index
+     * @return the last added piece of the type, or null if there is none
      */
-    public boolean hasPiece(Position pos) {
-        return isValidPosition(pos) && grid[pos.x][pos.y] != null;
+    public Piece peek(int type) {
+        return count(type) > 0 ? stacks[type][counts[type] - 1] : null;
     }
 
     /**
      * Get all pieces in the hand as a list
-     * @return list of all non-null pieces
+     * @return list of all pieces, grouped by type
      */
     public List<Piece> getAllPieces() {
-        List<Piece> pieces = new ArrayList<>();
-        for (Piece[] row : grid) {
-            for (Piece piece : row) {  
-                if (piece == null) {
-                    continue;
-                }
-                pieces.add(piece);
+        List<Piece> pieces = new ArrayList<>(size);
+        for (int type : LAYOUT_ORDER) {
+            for (int i = 0; i < counts[type]; i++) {
+                pieces.add(stacks[type][i]);
             }
         }
         return pieces;
@@ -123,7 +229,7 @@ public class HandGrid {
 
     /**
      * Get pieces in hand via stream and also filter for side
-     * @param side 
+     * @param side
      * @return
      */
     public Collection<Piece> getPiecesOfSide(Sides side) {
@@ -138,40 +244,43 @@ public class HandGrid {
      * @return true if piece is in hand
      */
     public boolean contains(Piece piece) {
-        for (int x = 0; x < ROWS; x++) {
-            for (int y = 0; y < COLS; y++) {
-                if (grid[x][y] == piece) {
-                    return true;
-                }
+        int type = piece.getType().ordinal();
+        for (int i = 0; i < count(type); i++) {
+            if (stacks[type][i] == piece) {
+                return true;
             }
         }
         return false;
     }
 
     /**
-     * Clear all pieces from the grid
+     * Clear all pieces from the hand
      */
     public void clear() {
-        for (int x = 0; x < ROWS; x++) {
-            for (int y = 0; y < COLS; y++) {
-                grid[x][y] = null;
-            }
+        for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+            Arrays.fill(stacks[type], null);
+            counts[type] = 0;
+        }
+        size = 0;
+        if (state != null) {
+            state.clearHand(owner.ordinal());
         }
     }
 
     /**
-     * Check if the grid is empty
-     * @return true if no pieces in grid
+     * Check if the hand is empty
+     * @return true if no pieces in hand
      */
     public boolean isEmpty() {
-        for (int x = 0; x < ROWS; x++) {
-            for (int y = 0; y < COLS; y++) {
-                if (grid[x][y] != null) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return size == 0;
+    }
+
+    /**
+     * Get the number of pieces in hand
+     * @return number of pieces
+     */
+    public int size() {
+        return size;
     }
 
     /**
@@ -180,32 +289,25 @@ public class HandGrid {
      */
     public HandGrid copy(Board board) {
         HandGrid copy = new HandGrid();
-        for (int x = 0; x < ROWS; x++) {
-            for (int y = 0; y < COLS; y++) {
-                if (grid[x][y] != null) {
-                    copy.grid[x][y] = grid[x][y].cloneForBoard(board);
-                }
+        for (int type : LAYOUT_ORDER) {
+            for (int i = 0; i < counts[type]; i++) {
+                copy.addPiece(stacks[type][i].cloneForBoard(board));
             }
         }
         return copy;
     }
 
     /**
-     * Find and remove a piece matching the class and side of the given piece.
+     * Find and remove a piece matching the type and side of the given piece.
      * Used for AI to select a piece to drop from hand.
-     * @param templatePiece a piece to match class and side
-     * @return the first matching piece found, or null if none found
+     * @param templatePiece a piece to match type and side
+     * @return the last added matching piece, or null if none found
      */
     public Piece findAndRemoveMatching(Piece templatePiece) {
-        for (int x = 0; x < ROWS; x++) {
-            for (int y = 0; y < COLS; y++) {
-                Piece candidate = grid[x][y];
-                if (candidate != null && 
-                    candidate.getClass() == templatePiece.getClass() && 
-                    candidate.getSide() == templatePiece.getSide()) {
-                    grid[x][y] = null;
-                    return candidate;
-                }
+        int type = templatePiece.getType().ordinal();
+        for (int i = count(type) - 1; i >= 0; i--) {
+            if (stacks[type][i].getSide() == templatePiece.getSide()) {
+                return removeAt(type, i);
             }
         }
         return null;
@@ -0,0 +1,641 @@
+package com.beanshogi.core.board;
+
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Pseudo-legal move generation and attack detection on the primitive board core.
+ * Moves are written as packed ints into caller owned MoveLists, so generation allocates nothing.
+ * Offsets follow the piece classes: {dx, dy} where dy is "forward" and gets multiplied by the side's align factor.
+ * They are expanded once into per square tables, see MoveTables.
+ * @param legalScratch buffer for legal move existence tests (checkmate detection)
+ * @param pinDirection direction from the king towards each pinned piece, valid for squares set in pinnedLo/pinnedHi
+ */
+public class MoveGenerator {
+    // Align factor per side index: Sente moves towards y = 0, Gote towards y = 8
+    static final int[] ALIGN = {-1, 1};
+
+    private static final int[][] NO_OFFSETS = {};
+    private static final int[][] PAWN_OFFSETS = {{0,1}};
+    private static final int[][] KNIGHT_OFFSETS = {{-1,2},{1,2}};
+    private static final int[][] SILVER_OFFSETS = {{-1,1},{0,1},{1,1},{-1,-1},{1,-1}};
+    private static final int[][] GOLD_OFFSETS = {{-1,1},{0,1},{1,1},{-1,0},{1,0},{0,-1}};
+    private static final int[][] KING_OFFSETS = {{-1,1},{0,1},{1,1},{-1,0},{1,0},{-1,-1},{0,-1},{1,-1}};
+    private static final int[][] ORTHOGONAL = {{0,1},{-1,0},{1,0},{0,-1}};
+    private static final int[][] DIAGONAL = {{-1,1},{1,1},{-1,-1},{1,-1}};
+
+    // Step and slide offsets of every piece type, indexed by type (shared with the attack maps of BoardState)
+    static final int[][][] STEPS = new int[PieceType.COUNT][][];
+    static final int[][][] SLIDES = new int[PieceType.COUNT][][];
+
+    // Absolute deltas towards a target square: 8 neighbours followed by the 2 knight jumps of each side
+    static final int[][] DELTAS = {{-1,-1},{0,-1},{1,-1},{-1,0},{1,0},{-1,1},{0,1},{1,1},
+                                           {-1,-2},{1,-2},{-1,2},{1,2}};
+    // Type masks of pieces reaching a square along one of the 8 neighbour directions (slide), per side
+    static final int[][] SLIDE_ATTACKERS = new int[2][8];
+    // Index into DELTAS of a neighbour step, indexed by (dy + 1) * 3 + dx + 1
+    private static final int[] NEIGHBOUR_INDEX = new int[9];
+    // Direction (DELTAS index) leading from one square to another on the same line, -1 if not aligned
+    private static final byte[] DIRECTION = new byte[Bitboard.SQUARES * Bitboard.SQUARES];
+
+    static {
+        STEPS[PieceType.PAWN.ordinal()] = PAWN_OFFSETS;
+        STEPS[PieceType.LANCE.ordinal()] = NO_OFFSETS;
+        STEPS[PieceType.KNIGHT.ordinal()] = KNIGHT_OFFSETS;
+        STEPS[PieceType.SILVER.ordinal()] = SILVER_OFFSETS;
+        STEPS[PieceType.BISHOP.ordinal()] = NO_OFFSETS;
+        STEPS[PieceType.ROOK.ordinal()] = NO_OFFSETS;
+        STEPS[PieceType.GOLD.ordinal()] = GOLD_OFFSETS;
+        STEPS[PieceType.KING.ordinal()] = KING_OFFSETS;
+        STEPS[PieceType.PROMOTED_PAWN.ordinal()] = GOLD_OFFSETS;
+        STEPS[PieceType.PROMOTED_LANCE.ordinal()] = GOLD_OFFSETS;
+        STEPS[PieceType.PROMOTED_KNIGHT.ordinal()] = GOLD_OFFSETS;
+        STEPS[PieceType.PROMOTED_SILVER.ordinal()] = GOLD_OFFSETS;
+        STEPS[PieceType.PROMOTED_BISHOP.ordinal()] = ORTHOGONAL;
+        STEPS[PieceType.PROMOTED_ROOK.ordinal()] = DIAGONAL;
+
+        for (int type = 0; type < PieceType.COUNT; type++) {
+            SLIDES[type] = NO_OFFSETS;
+        }
+        SLIDES[PieceType.LANCE.ordinal()] = PAWN_OFFSETS;
+        SLIDES[PieceType.BISHOP.ordinal()] = DIAGONAL;
+        SLIDES[PieceType.ROOK.ordinal()] = ORTHOGONAL;
+        SLIDES[PieceType.PROMOTED_BISHOP.ordinal()] = DIAGONAL;
+        SLIDES[PieceType.PROMOTED_ROOK.ordinal()] = ORTHOGONAL;
+
+        for (int i = 0; i < 8; i++) {
+            NEIGHBOUR_INDEX[(DELTAS[i][1] + 1) * 3 + DELTAS[i][0] + 1] = i;
+        }
+        for (int from = 0; from < Bitboard.SQUARES; from++) {
+            for (int to = 0; to < Bitboard.SQUARES; to++) {
+                int dx = Bitboard.fileOf(to) - Bitboard.fileOf(from);
+                int dy = Bitboard.rankOf(to) - Bitboard.rankOf(from);
+                boolean aligned = from != to && (dx == 0 || dy == 0 || Math.abs(dx) == Math.abs(dy));
+                DIRECTION[from * Bitboard.SQUARES + to] = (byte) (aligned
+                    ? NEIGHBOUR_INDEX[(Integer.signum(dy) + 1) * 3 + Integer.signum(dx) + 1] : -1);
+            }
+        }
+        for (int side = 0; side < 2; side++) {
+            for (int type = 0; type < PieceType.COUNT; type++) {
+                for (int[] dir : SLIDES[type]) {
+                    SLIDE_ATTACKERS[side][deltaIndex(dir[0], dir[1] * ALIGN[side])] |= 1 << type;
+                }
+            }
+        }
+    }
+
+    private static int deltaIndex(int dx, int dy) {
+        for (int i = 0; i < DELTAS.length; i++) {
+            if (DELTAS[i][0] == dx && DELTAS[i][1] == dy) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No delta for " + dx + "," + dy);
+    }
+
+    private final MoveList legalScratch = new MoveList();
+    private final int[] pinDirection = new int[Bitboard.SQUARES];
+    private long pinnedLo;
+    private long pinnedHi;
+
+    /**
+     * Generate all pseudo-legal moves (board moves and drops) of the side to move.
+     * Moves leaving the own king in check are included and have to be filtered by the caller.
+     * @param state the position
+     * @param out list to fill, cleared first
+     */
+    public void generate(BoardState state, MoveList out) {
+        out.clear();
+        generateBoardMoves(state, out);
+        generateDrops(state, out);
+    }
+
+    /**
+     * Generate only the legal moves of the side to move.
+     * Pins and checks are worked out up front from the attack maps, so no move is made to test it:
+     * in double check only the king moves, in single check the other pieces capture the checker or block
+     * its ray (drops can only block), and pinned pieces stay on the line between their king and the pinner.
+     * @param state the position
+     * @param out list to fill, cleared first
+     */
+    public void generateLegal(BoardState state, MoveList out) {
+        out.clear();
+        int side = state.getSideToMove();
+        int king = state.kingSquare(side);
+        if (king < 0) {
+            // Without a king nothing can be left in check
+            generateBoardMoves(state, out);
+            generateDrops(state, out);
+            return;
+        }
+        int checkers = state.attackCount(side ^ 1, king);
+        int checker = checkers == 1 ? findChecker(state, side, king) : -1;
+        findPins(state, side, king);
+
+        long lo = state.occupiedLo(side);
+        long hi = state.occupiedHi(side);
+        while (lo != 0) {
+            int sq = Bitboard.firstLo(lo);
+            lo &= lo - 1;
+            generateLegalPieceMoves(state, side, sq, king, checkers, checker, out);
+        }
+        while (hi != 0) {
+            int sq = Bitboard.firstHi(hi);
+            hi &= hi - 1;
+            generateLegalPieceMoves(state, side, sq, king, checkers, checker, out);
+        }
+
+        if (checkers == 0) {
+            generateDrops(state, out);
+        } else if (checkers == 1 && distance(king, checker) > 1) {
+            // A distant checker is a slider - drops may block its ray
+            int start = out.size();
+            generateDrops(state, out);
+            int kept = start;
+            for (int i = start; i < out.size(); i++) {
+                int move = out.get(i);
+                if (isBetween(king, checker, PackedMove.to(move))) {
+                    out.set(kept++, move);
+                }
+            }
+            out.truncate(kept);
+        }
+    }
+
+    private void generateLegalPieceMoves(BoardState state, int side, int from, int king, int checkers, int checker, MoveList out) {
+        int start = out.size();
+        if (from == king) {
+            generatePieceMoves(state, side, from, out);
+            int kept = start;
+            for (int i = start; i < out.size(); i++) {
+                int move = out.get(i);
+                if (isKingMoveSafe(state, side, from, PackedMove.to(move))) {
+                    out.set(kept++, move);
+                }
+            }
+            out.truncate(kept);
+            return;
+        }
+        if (checkers > 1) {
+            return;
+        }
+        boolean pinned = Bitboard.test(pinnedLo, pinnedHi, from);
+        if (pinned && checkers == 1) {
+            // A pinned piece can never resolve a check
+            return;
+        }
+        generatePieceMoves(state, side, from, out);
+        if (!pinned && checkers == 0) {
+            return;
+        }
+        int kept = start;
+        for (int i = start; i < out.size(); i++) {
+            int move = out.get(i);
+            int to = PackedMove.to(move);
+            boolean allowed = pinned
+                ? DIRECTION[king * Bitboard.SQUARES + to] == pinDirection[from]
+                : to == checker || isBetween(king, checker, to);
+            if (allowed) {
+                out.set(kept++, move);
+            }
+        }
+        out.truncate(kept);
+    }
+
+    // Mark own pieces standing between the king and an enemy slider aiming at it
+    private void findPins(BoardState state, int side, int king) {
+        pinnedLo = 0L;
+        pinnedHi = 0L;
+        int enemy = side ^ 1;
+        for (int dir = 0; dir < 8; dir++) {
+            // Sliders reaching the king move in the opposite direction (DELTAS pairs up as i / 7 - i)
+            int sliders = SLIDE_ATTACKERS[enemy][7 - dir];
+            if (sliders == 0) {
+                continue;
+            }
+            int candidate = -1;
+            for (int sq : MoveTables.line(dir, king)) {
+                int code = state.pieceAt(sq);
+                if (code == BoardState.EMPTY) {
+                    continue;
+                }
+                if (candidate < 0) {
+                    if (BoardState.sideOf(code) != side) {
+                        break;
+                    }
+                    candidate = sq;
+                } else {
+                    if (BoardState.sideOf(code) == enemy && (sliders & (1 << BoardState.typeOf(code))) != 0) {
+                        if (candidate < 64) {
+                            pinnedLo |= 1L << candidate;
+                        } else {
+                            pinnedHi |= 1L << (candidate - 64);
+                        }
+                        pinDirection[candidate] = dir;
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    // Find the single piece giving check: the first piece on a line from the king or a knight
+    private static int findChecker(BoardState state, int side, int king) {
+        for (int i = 0; i < DELTAS.length; i++) {
+            for (int sq : MoveTables.line(i, king)) {
+                int code = state.pieceAt(sq);
+                if (code != BoardState.EMPTY) {
+                    if (BoardState.sideOf(code) != side && attacks(state, sq, king)) {
+                        return sq;
+                    }
+                    break;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int distance(int a, int b) {
+        return Math.max(Math.abs(Bitboard.fileOf(a) - Bitboard.fileOf(b)), Math.abs(Bitboard.rankOf(a) - Bitboard.rankOf(b)));
+    }
+
+    // Checks whether a square lies strictly between the king and an aligned checker
+    private static boolean isBetween(int king, int checker, int sq) {
+        int dir = DIRECTION[king * Bitboard.SQUARES + checker];
+        return dir >= 0 && DIRECTION[king * Bitboard.SQUARES + sq] == dir && distance(king, sq) < distance(king, checker);
+    }
+
+    /**
+     * Append the pseudo-legal board moves of the side to move, with promotion variants.
+     * @param state the position
+     * @param out list to append to
+     */
+    public void generateBoardMoves(BoardState state, MoveList out) {
+        int side = state.getSideToMove();
+        long lo = state.occupiedLo(side);
+        long hi = state.occupiedHi(side);
+        while (lo != 0) {
+            int sq = Bitboard.firstLo(lo);
+            lo &= lo - 1;
+            generatePieceMoves(state, side, sq, out);
+        }
+        while (hi != 0) {
+            int sq = Bitboard.firstHi(hi);
+            hi &= hi - 1;
+            generatePieceMoves(state, side, sq, out);
+        }
+    }
+
+    private void generatePieceMoves(BoardState state, int side, int from, MoveList out) {
+        int type = BoardState.typeOf(state.pieceAt(from));
+        int index = MoveTables.index(side, type, from);
+        for (int to : MoveTables.steps(index)) {
+            int target = state.pieceAt(to);
+            if (target != BoardState.EMPTY && (BoardState.sideOf(target) == side || isKing(target))) {
+                continue;
+            }
+            addBoardMove(side, from, to, type, target, out);
+        }
+        for (int[] ray : MoveTables.rays(index)) {
+            for (int to : ray) {
+                int target = state.pieceAt(to);
+                if (target != BoardState.EMPTY) {
+                    if (BoardState.sideOf(target) != side && !isKing(target)) {
+                        addBoardMove(side, from, to, type, target, out);
+                    }
+                    break;
+                }
+                addBoardMove(side, from, to, type, target, out);
+            }
+        }
+    }
+
+    private static boolean isKing(int code) {
+        return BoardState.typeOf(code) == PieceType.KING.ordinal();
+    }
+
+    private static void addBoardMove(int side, int from, int to, int type, int target, MoveList out) {
+        int captured = target == BoardState.EMPTY ? -1 : BoardState.typeOf(target);
+        boolean canPromote = PieceType.isPromotable(type)
+            && (Bitboard.inPromotionZone(from, side) || Bitboard.inPromotionZone(to, side));
+        if (canPromote) {
+            out.add(PackedMove.boardMove(from, to, type, true, captured));
+        }
+        if (!canPromote || !mustPromote(type, to, side)) {
+            out.add(PackedMove.boardMove(from, to, type, false, captured));
+        }
+    }
+
+    /**
+     * Checks whether a piece would be left without moves on a square and therefore has to promote (or can't be dropped).
+     * @param type type index
+     * @param sq destination square
+     * @param side side index
+     * @return true for pawns and lances on the last rank and knights on the last two ranks
+     */
+    public static boolean mustPromote(int type, int sq, int side) {
+        int distance = side == 0 ? Bitboard.rankOf(sq) : 8 - Bitboard.rankOf(sq);
+        if (type == PieceType.PAWN.ordinal() || type == PieceType.LANCE.ordinal()) {
+            return distance < 1;
+        }
+        if (type == PieceType.KNIGHT.ordinal()) {
+            return distance < 2;
+        }
+        return false;
+    }
+
+    /**
+     * Append the pseudo-legal drops of the side to move.
+     * Nifu, dead-end ranks and uchifuzume (pawn drop mate) are already excluded.
+     * @param state the position
+     * @param out list to append to
+     */
+    public void generateDrops(BoardState state, MoveList out) {
+        int side = state.getSideToMove();
+        long emptyLo = ~state.occupiedLo();
+        long emptyHi = ~state.occupiedHi() & Bitboard.HI_MASK;
+        for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+            if (state.handCount(side, type) == 0) {
+                continue;
+            }
+            long lo = emptyLo;
+            long hi = emptyHi;
+            while (lo != 0) {
+                int sq = Bitboard.firstLo(lo);
+                lo &= lo - 1;
+                addDrop(state, side, type, sq, out);
+            }
+            while (hi != 0) {
+                int sq = Bitboard.firstHi(hi);
+                hi &= hi - 1;
+                addDrop(state, side, type, sq, out);
+            }
+        }
+    }
+
+    private void addDrop(BoardState state, int side, int type, int sq, MoveList out) {
+        if (mustPromote(type, sq, side)) {
+            return;
+        }
+        if (type == PieceType.PAWN.ordinal()) {
+            if (state.hasPawnOnFile(side, Bitboard.fileOf(sq))) {
+                return;
+            }
+            if (isUchifuzume(state, side, sq)) {
+                return;
+            }
+        }
+        out.add(PackedMove.drop(type, sq));
+    }
+
+    /**
+     * Checks if dropping a pawn would be uchifuzume - a pawn drop that delivers checkmate.
+     * Only a drop right in front of the enemy king gives check, and such a contact check can't be blocked,
+     * so the drop is mate exactly when no defender can take the pawn and the king has no safe square.
+     * The drop is never played: both answers come from the attack maps with the pawn's square treated as occupied.
+     * @param state the position, with the dropping side to move and the enemy king not in check
+     * @param side side index of the dropping side
+     * @param sq drop square
+     * @return true if the drop would be an illegal pawn drop mate
+     */
+    public static boolean isUchifuzume(BoardState state, int side, int sq) {
+        int enemy = side ^ 1;
+        int king = state.kingSquare(enemy);
+        int frontY = Bitboard.rankOf(sq) + ALIGN[side];
+        if (king < 0 || frontY < 0 || frontY >= 9 || king != Bitboard.square(Bitboard.fileOf(sq), frontY)) {
+            return false;
+        }
+        // The enemy king always covers the pawn, any further attacker may be able to take it
+        if (state.attackCount(enemy, sq) > 1 && canCaptureDroppedPawn(state, enemy, king, sq)) {
+            return false;
+        }
+        for (int i = 0; i < 8; i++) {
+            int[] line = MoveTables.line(i, king);
+            if (line.length == 0) {
+                continue;
+            }
+            int to = line[0];
+            int code = state.pieceAt(to);
+            if (to != sq && code != BoardState.EMPTY && BoardState.sideOf(code) == enemy) {
+                continue;
+            }
+            int attackers = state.attackCount(side, to);
+            if (to != sq && attackers > 0 && isSlidingThrough(state, side, sq, to)) {
+                attackers--;
+            }
+            if (attackers == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Checks whether a defender other than the king can take a pawn dropped on sq without exposing its king
+    private static boolean canCaptureDroppedPawn(BoardState state, int enemy, int king, int sq) {
+        for (int i = 0; i < DELTAS.length; i++) {
+            for (int from : MoveTables.line(i, sq)) {
+                int code = state.pieceAt(from);
+                if (code != BoardState.EMPTY) {
+                    if (from != king && BoardState.sideOf(code) == enemy && attacks(state, from, sq)
+                            && !isPinnedWithPawn(state, enemy, king, from, sq)) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Checks whether a piece is pinned to its king once a pawn stands on sq
+    private static boolean isPinnedWithPawn(BoardState state, int side, int king, int piece, int sq) {
+        int dir = DIRECTION[king * Bitboard.SQUARES + piece];
+        if (dir < 0) {
+            return false;
+        }
+        boolean behindPiece = false;
+        for (int at : MoveTables.line(dir, king)) {
+            if (at == piece) {
+                behindPiece = true;
+            } else if (at == sq) {
+                return false;
+            } else {
+                int code = state.pieceAt(at);
+                if (code != BoardState.EMPTY) {
+                    return behindPiece && BoardState.sideOf(code) != side
+                        && (SLIDE_ATTACKERS[side ^ 1][7 - dir] & (1 << BoardState.typeOf(code))) != 0;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Checks whether a slider of a side reaches the neighbouring square `to` through the empty square sq
+    private static boolean isSlidingThrough(BoardState state, int side, int sq, int to) {
+        int dir = DIRECTION[sq * Bitboard.SQUARES + to];
+        if (dir < 0 || distance(sq, to) != 1) {
+            return false;
+        }
+        // Look back against the direction (DELTAS pairs up as i / 7 - i)
+        for (int at : MoveTables.line(7 - dir, sq)) {
+            int code = state.pieceAt(at);
+            if (code != BoardState.EMPTY) {
+                return BoardState.sideOf(code) == side && (SLIDE_ATTACKERS[side][dir] & (1 << BoardState.typeOf(code))) != 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the side to move has at least one legal move.
+     * @param state the position
+     * @return true if any move leaves the own king safe
+     */
+    public boolean hasLegalMove(BoardState state) {
+        generateLegal(state, legalScratch);
+        return !legalScratch.isEmpty();
+    }
+
+    /**
+     * Checks whether a side is checkmated.
+     * @param state the position
+     * @param side side index to test
+     * @return true if the side is in check and has no legal move
+     */
+    public boolean isCheckMate(BoardState state, int side) {
+        if (!isInCheck(state, side)) {
+            return false;
+        }
+        int previous = state.getSideToMove();
+        state.setSideToMove(side);
+        boolean mate = !hasLegalMove(state);
+        state.setSideToMove(previous);
+        return mate;
+    }
+
+    /**
+     * Checks whether a pseudo-legal move of the side to move leaves its own king safe.
+     * @param state the position
+     * @param move packed move
+     * @return true if legal
+     */
+    public static boolean isLegal(BoardState state, int move) {
+        int side = state.getSideToMove();
+        if (!PackedMove.isDrop(move) && PackedMove.pieceType(move) == PieceType.KING.ordinal()) {
+            return isKingMoveSafe(state, side, PackedMove.from(move), PackedMove.to(move));
+        }
+        state.makeMove(move);
+        boolean safe = !isInCheck(state, side);
+        state.unmakeMove(move);
+        return safe;
+    }
+
+    public static boolean isInCheck(BoardState state, int side) {
+        return state.isInCheck(side);
+    }
+
+    /**
+     * Checks whether the king of a side can step between two neighbouring squares without being attacked.
+     * The attack map stops slider rays at the king itself, so a slider checking along the direction of the step
+     * is looked up separately: the square behind the king is still covered by it.
+     * @param state the position
+     * @param side side index of the king
+     * @param from square of the king
+     * @param to destination square
+     * @return true if the king is safe on the destination
+     */
+    public static boolean isKingMoveSafe(BoardState state, int side, int from, int to) {
+        int enemy = side ^ 1;
+        if (state.attackCount(enemy, to) > 0) {
+            return false;
+        }
+        if (state.attackCount(enemy, from) == 0) {
+            return true;
+        }
+        int dx = Bitboard.fileOf(to) - Bitboard.fileOf(from);
+        int dy = Bitboard.rankOf(to) - Bitboard.rankOf(from);
+        int dir = NEIGHBOUR_INDEX[(dy + 1) * 3 + dx + 1];
+        int sliders = SLIDE_ATTACKERS[enemy][dir];
+        for (int at : MoveTables.line(7 - dir, from)) {
+            int code = state.pieceAt(at);
+            if (code != BoardState.EMPTY) {
+                return BoardState.sideOf(code) != enemy || (sliders & (1 << BoardState.typeOf(code))) == 0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether any piece of a side attacks a square - a lookup in the incremental attack map.
+     * @param state the position
+     * @param sq target square
+     * @param bySide attacking side index
+     * @return true if attacked
+     */
+    public static boolean isAttacked(BoardState state, int sq, int bySide) {
+        return state.attackCount(bySide, sq) > 0;
+    }
+
+    /**
+     * Checks whether the piece on a square attacks another square, respecting blockers.
+     * @param state the position
+     * @param from square of the attacking piece
+     * @param target attacked square
+     * @return true if the piece reaches the target
+     */
+    public static boolean attacks(BoardState state, int from, int target) {
+        int code = state.pieceAt(from);
+        if (code == BoardState.EMPTY) {
+            return false;
+        }
+        int side = BoardState.sideOf(code);
+        int type = BoardState.typeOf(code);
+        if (MoveTables.stepsTo(MoveTables.index(side, type, from), target)) {
+            return true;
+        }
+        int dir = DIRECTION[from * Bitboard.SQUARES + target];
+        if (dir < 0 || (SLIDE_ATTACKERS[side][dir] & (1 << type)) == 0) {
+            return false;
+        }
+        for (int sq : MoveTables.line(dir, from)) {
+            if (sq == target) {
+                return true;
+            }
+            if (!state.isEmpty(sq)) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the pseudo-legal destination squares of the piece on a square, like Piece.getLegalMoves().size().
+     * @param state the position
+     * @param sq square of the piece
+     * @return number of reachable squares
+     */
+    public static int mobility(BoardState state, int sq) {
+        int code = state.pieceAt(sq);
+        int side = BoardState.sideOf(code);
+        int index = MoveTables.index(side, BoardState.typeOf(code), sq);
+        int count = 0;
+        for (int to : MoveTables.steps(index)) {
+            int target = state.pieceAt(to);
+            if (target == BoardState.EMPTY || (BoardState.sideOf(target) != side && !isKing(target))) {
+                count++;
+            }
+        }
+        for (int[] ray : MoveTables.rays(index)) {
+            for (int to : ray) {
+                int target = state.pieceAt(to);
+                if (target != BoardState.EMPTY) {
+                    if (BoardState.sideOf(target) != side && !isKing(target)) {
+                        count++;
+                    }
+                    break;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,226 @@
+package com.beanshogi.core.board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.beanshogi.core.game.Sides;
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Complete move line of a game on the board core, from the position the history starts at.
+ * A copy of the position is kept every CHECKPOINT_INTERVAL plies, so the position at any ply is rebuilt
+ * by replaying at most CHECKPOINT_INTERVAL - 1 moves instead of the whole game.
+ * Moves can also be written in a compact 16 bit form for saving:
+ * to | from &lt;&lt; 7 | promotion &lt;&lt; 14 | side &lt;&lt; 15, where a drop stores 81 + the dropped type as from.
+ * @param start position before the first move
+ * @param startMoveNumber move number of the start position, 1 for a new game
+ * @param moves packed moves, with the moving side stored above the packed bits
+ * @param checkpoints positions after every CHECKPOINT_INTERVAL plies, the first one is the start position
+ * @param tip position after the last move, used to resolve the captured piece of added moves
+ */
+public final class MoveHistory {
+    /** Plies between two cached positions */
+    public static final int CHECKPOINT_INTERVAL = 16;
+
+    private static final int SIDE_SHIFT = 24;
+    private static final int PACKED_MASK = (1 << SIDE_SHIFT) - 1;
+    private static final int DROP_FROM = Bitboard.SQUARES;
+    private static final int COMPACT_PROMOTION = 1 << 14;
+    private static final int COMPACT_SIDE_SHIFT = 15;
+
+    private final int startMoveNumber;
+    private final List<BoardState> checkpoints = new ArrayList<>();
+    private final BoardState tip = new BoardState();
+    private int[] moves = new int[64];
+    private int size;
+
+    /**
+     * Start an empty history.
+     * @param start position before the first move, copied
+     * @param startMoveNumber move number of the start position, 1 for a new game
+     */
+    public MoveHistory(BoardState start, int startMoveNumber) {
+        this.startMoveNumber = startMoveNumber;
+        BoardState first = new BoardState();
+        first.copyFrom(start);
+        checkpoints.add(first);
+        tip.copyFrom(start);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStartMoveNumber() {
+        return startMoveNumber;
+    }
+
+    /**
+     * Get the Zobrist key of the position after the last move.
+     * @return 64-bit key of the last position
+     */
+    public long getTipKey() {
+        return tip.getKey();
+    }
+
+    /**
+     * Get the position the history starts at.
+     * @return the start position, must not be modified
+     */
+    public BoardState getStart() {
+        return checkpoints.get(0);
+    }
+
+    /**
+     * Get a move of the line.
+     * @param ply index of the move, 0 for the first one
+     * @return packed move
+     */
+    public int getMove(int ply) {
+        return moves[ply] & PACKED_MASK;
+    }
+
+    /**
+     * Get the side that played a move of the line.
+     * @param ply index of the move, 0 for the first one
+     * @return side index
+     */
+    public int getSide(int ply) {
+        return moves[ply] >>> SIDE_SHIFT;
+    }
+
+    /**
+     * Append a move played from the last position of the line.
+     * @param side side index of the moving side
+     * @param move packed move
+     */
+    public void add(int side, int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move | side << SIDE_SHIFT;
+        tip.setSideToMove(side);
+        tip.makeMove(move);
+        if (size % CHECKPOINT_INTERVAL == 0) {
+            BoardState checkpoint = new BoardState();
+            checkpoint.copyFrom(tip);
+            checkpoints.add(checkpoint);
+        }
+    }
+
+    /**
+     * Append a move given in the compact form, resolving the moved and captured pieces on the last position of the line.
+     * @param compact compact move
+     * @return the packed move that was added
+     * @throws IllegalArgumentException if the move doesn't fit the position
+     */
+    public int addCompact(int compact) {
+        int move = decode(compact, tip);
+        add(compact >>> COMPACT_SIDE_SHIFT & 1, move);
+        return move;
+    }
+
+    /**
+     * Drop the moves after a ply, e.g. when a new move is played after undoing.
+     * @param ply number of moves to keep
+     */
+    public void truncate(int ply) {
+        if (ply >= size) {
+            return;
+        }
+        size = Math.max(0, ply);
+        // Checkpoints past the new end no longer belong to the line
+        int keep = size / CHECKPOINT_INTERVAL + 1;
+        while (checkpoints.size() > keep) {
+            checkpoints.remove(checkpoints.size() - 1);
+        }
+        positionAt(size, tip);
+    }
+
+    /**
+     * Rebuild the position after a number of moves from the nearest checkpoint.
+     * @param ply number of moves played, between 0 and size()
+     * @param out state to overwrite with the position
+     */
+    public void positionAt(int ply, BoardState out) {
+        if (ply < 0 || ply > size) {
+            throw new IndexOutOfBoundsException("Ply " + ply + " outside of 0.." + size);
+        }
+        int checkpoint = ply / CHECKPOINT_INTERVAL;
+        out.copyFrom(checkpoints.get(checkpoint));
+        for (int i = checkpoint * CHECKPOINT_INTERVAL; i < ply; i++) {
+            out.setSideToMove(getSide(i));
+            out.makeMove(getMove(i));
+        }
+    }
+
+    /**
+     * Get a move of the line in the compact form.
+     * @param ply index of the move, 0 for the first one
+     * @return compact move
+     */
+    public int getCompact(int ply) {
+        return encode(getSide(ply), getMove(ply));
+    }
+
+    /**
+     * Write a move in the compact form.
+     * @param side side index of the moving side
+     * @param move packed move
+     * @return compact move, it fits in 16 bits
+     */
+    public static int encode(int side, int move) {
+        int from = PackedMove.isDrop(move) ? DROP_FROM + PackedMove.pieceType(move) : PackedMove.from(move);
+        int compact = PackedMove.to(move) | from << 7 | side << COMPACT_SIDE_SHIFT;
+        return PackedMove.isPromotion(move) ? compact | COMPACT_PROMOTION : compact;
+    }
+
+    /**
+     * Write a move of the board in the compact form.
+     * @param move the move
+     * @return compact move, it fits in 16 bits
+     */
+    public static int encode(Move move) {
+        Sides side = move.getPlayer().getSide();
+        int to = Bitboard.square(move.getTo());
+        int packed = move.isDrop()
+            ? PackedMove.drop(move.getMovedPiece().getType().ordinal(), to)
+            : PackedMove.boardMove(Bitboard.square(move.getFrom()), to, 0, move.isPromotion(), -1);
+        return encode(side.ordinal(), packed);
+    }
+
+    /**
+     * Read a compact move for the position it is played in.
+     * @param compact compact move
+     * @param state the position before the move, used for the moved and captured piece types
+     * @return packed move
+     * @throws IllegalArgumentException if the move doesn't fit the position: a drop of a type the side doesn't hold
+     * or onto an occupied square, a board move without a piece of the side on its origin or onto its own piece
+     */
+    public static int decode(int compact, BoardState state) {
+        int to = compact & 0x7F;
+        int from = compact >>> 7 & 0x7F;
+        if (to >= Bitboard.SQUARES || from >= DROP_FROM + PieceType.HAND_COUNT) {
+            throw new IllegalArgumentException("Invalid compact move " + compact);
+        }
+        int side = compact >>> COMPACT_SIDE_SHIFT & 1;
+        int target = state.pieceAt(to);
+        if (from >= DROP_FROM) {
+            int type = from - DROP_FROM;
+            if (state.handCount(side, type) == 0 || target != BoardState.EMPTY) {
+                throw new IllegalArgumentException("Invalid drop of type " + type + " on square " + to);
+            }
+            return PackedMove.drop(type, to);
+        }
+        int code = state.pieceAt(from);
+        if (code == BoardState.EMPTY || BoardState.sideOf(code) != side) {
+            throw new IllegalArgumentException("No piece of side " + side + " to move from square " + from);
+        }
+        if (target != BoardState.EMPTY && BoardState.sideOf(target) == side) {
+            throw new IllegalArgumentException("Square " + to + " holds a piece of the moving side");
+        }
+        int captured = target == BoardState.EMPTY ? -1 : BoardState.typeOf(target);
+        return PackedMove.boardMove(from, to, BoardState.typeOf(code), (compact & COMPACT_PROMOTION) != 0, captured);
+    }
+}
@@ -0,0 +1,78 @@
+package com.beanshogi.core.board;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of packed moves with an ordering score per move.
+ * One list is kept per search ply and cleared instead of reallocated, so generation allocates nothing.
+ */
+public class MoveList {
+    // Shogi positions have at most 593 legal moves, pseudo-legal ones stay well below this
+    public static final int CAPACITY = 1024;
+
+    private final int[] moves = new int[CAPACITY];
+    private final int[] scores = new int[CAPACITY];
+    private final long[] sortKeys = new long[CAPACITY];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size] = move;
+        scores[size] = 0;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Drop the moves from the given index on, used to compact a list after filtering in place.
+     * @param newSize number of moves to keep
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    public void setScore(int index, int score) {
+        scores[index] = score;
+    }
+
+    /**
+     * Stable sort of the moves by descending score, without allocating.
+     */
+    public void sortByScore() {
+        // Pack (negated score, index) into one long so a primitive sort keeps ties in generation order
+        for (int i = 0; i < size; i++) {
+            sortKeys[i] = ((long) -scores[i] << 32) | i;
+        }
+        Arrays.sort(sortKeys, 0, size);
+        for (int i = 0; i < size; i++) {
+            int from = (int) sortKeys[i];
+            sortKeys[i] = ((long) moves[from] << 32) | (scores[from] & 0xFFFFFFFFL);
+        }
+        for (int i = 0; i < size; i++) {
+            moves[i] = (int) (sortKeys[i] >> 32);
+            scores[i] = (int) sortKeys[i];
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.beanshogi.core.board;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Stack;
 
 import com.beanshogi.core.game.Player;
@@ -12,12 +14,18 @@ import com.beanshogi.core.pieces.PromotedPiece;
  * @param undoStack a stack using which a move can be undone
  * @param redoStack a stack using which an undone move can be redone
  * @param archivedMovesMade starting point for tracking moves made after deserialization.
+ * @param positionCounts occurrences of every Zobrist key reached by the moves on the undo stack
+ * @param historyStartKey Zobrist key of the position before the first move on the undo stack
+ * @param history the whole move line on the board core, including the moves on the redo stack
  */
 public class MoveManager {
     private transient Board board;  // Marked as transient to prevent circular reference in JSON
     protected Stack<Move> undoStack = new Stack<>();
     protected Stack<Move> redoStack = new Stack<>();
     private int archivedMovesMade = 0;
+    private transient Map<Long, Integer> positionCounts = new HashMap<>();  // Transient, history is not restored on load
+    private transient long historyStartKey;
+    private transient MoveHistory history;  // Transient, saves store the line in their own format
 
     public MoveManager(Board board) {
         this.board = board;
@@ -55,6 +63,108 @@ public class MoveManager {
         return redoStack;
     }
 
+    /**
+     * Get the move line of the game: the moves on the undo stack followed by the ones on the redo stack.
+     * @return the history, starting at the current position if no move has been made
+     */
+    public MoveHistory getHistory() {
+        if (history == null) {
+            history = new MoveHistory(board.getState(), getNoOfMoves() + 1);
+        }
+        return history;
+    }
+
+    /**
+     * Get the index of the current position in the move line.
+     * @return number of history moves leading to the current position
+     */
+    public int getHistoryPly() {
+        return Math.max(0, getHistory().size() - redoStack.size());
+    }
+
+    // Called before a move is applied: cut the undone moves off the line and append the new one
+    private void recordHistory(Move move) {
+        BoardState state = board.getState();
+        if (history == null || undoStack.isEmpty()) {
+            history = new MoveHistory(state, archivedMovesMade + 1);
+        } else {
+            history.truncate(getHistoryPly());
+            if (history.getTipKey() != state.getKey()) {
+                // The board was edited outside of the move manager, the line restarts here
+                history = new MoveHistory(state, getNoOfMoves() + 1);
+            }
+        }
+        history.addCompact(MoveHistory.encode(move));
+    }
+
+    /**
+     * Get the Zobrist key of the current position, kept up to date by apply/undo/redo.
+     * @return 64-bit key of the board, hands and side to move
+     */
+    public long getZobristKey() {
+        return board.getState().getKey();
+    }
+
+    /**
+     * Get how many times the current position has occurred in the tracked move history.
+     * @return number of occurrences including the current one
+     */
+    public int getRepetitionCount() {
+        long key = getZobristKey();
+        int count = getPositionCounts().getOrDefault(key, 0);
+        return key == historyStartKey ? count + 1 : count;
+    }
+
+    /**
+     * Checks for a fourfold repetition (Sennichite): the same board, hands and side to move reached four times.
+     * @return true if the current position occurred four times
+     */
+    public boolean isFourfoldRepetition() {
+        return getRepetitionCount() >= 4;
+    }
+
+    private Map<Long, Integer> getPositionCounts() {
+        if (positionCounts == null) {
+            positionCounts = new HashMap<>();
+        }
+        return positionCounts;
+    }
+
+    // Called before a move is pushed: the first move of the history fixes the start position
+    private void markHistoryStart() {
+        if (undoStack.isEmpty()) {
+            getPositionCounts().clear();
+            historyStartKey = getZobristKey();
+        }
+    }
+
+    // Called after a move is applied: pass the turn and count the reached position
+    private void recordPosition() {
+        passTurn();
+        getPositionCounts().merge(getZobristKey(), 1, Integer::sum);
+    }
+
+    // Toggle rather than set the side, so simulated moves of either side undo back to the same key
+    private void passTurn() {
+        BoardState state = board.getState();
+        state.setSideToMove(state.getSideToMove() ^ 1);
+    }
+
+    // Called before a move is taken back: forget the position it reached
+    private void forgetPosition() {
+        Map<Long, Integer> counts = getPositionCounts();
+        long key = getZobristKey();
+        Integer count = counts.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count <= 1) {
+            counts.remove(key);
+        } else {
+            counts.put(key, count - 1);
+        }
+    }
+
     /**
      * Applies a move to the board, updating piece positions and handling captures, drops, and promotions.
      * Pushes the move onto the undo stack and clears the redo stack.
@@ -62,6 +172,8 @@ public class MoveManager {
      */
     public void applyMove(Move move) {
         Player movePlayer = move.getPlayer();
+        recordHistory(move);
+        markHistoryStart();
         
         if (move.isDrop()) {
             // Dropping a piece from hand onto the board
@@ -100,6 +212,7 @@ public class MoveManager {
             // Move the piece to destination (this will overwrite any captured piece)
             board.setPiece(move.getTo(), movedPiece);
         }
+        recordPosition();
         
         // Add the current move data to undoStack
         undoStack.push(move);
@@ -117,6 +230,7 @@ public class MoveManager {
             return;
         }
         
+        forgetPosition();
         Move lastMove = undoStack.pop();
         redoStack.push(lastMove);
 
@@ -154,6 +268,7 @@ public class MoveManager {
             }
             board.setPiece(lastMove.getFrom(), movedPiece);
         }
+        passTurn();
     }
 
     /**
@@ -166,6 +281,7 @@ public class MoveManager {
             return;
         }
 
+        markHistoryStart();
         Move redoMove = redoStack.pop();
         undoStack.push(redoMove);
 
@@ -201,6 +317,7 @@ public class MoveManager {
             // Place at destination
             board.setPiece(redoMove.getTo(), pieceToMove);
         }
+        recordPosition();
     }
 
     /**
@@ -0,0 +1,132 @@
+package com.beanshogi.core.board;
+
+import java.util.Arrays;
+
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Precomputed destination squares of every piece type, per side and square.
+ * Move generation, attack maps and the piece objects read their moves from here instead of
+ * walking offsets and checking the board edges on every call.
+ * Tables are indexed by index(side, type, sq); rays and lines list their squares nearest first.
+ * @param STEPS squares reached by a single step
+ * @param STEP_LO low bits of the step squares as a bitboard
+ * @param STEP_HI high bits of the step squares as a bitboard
+ * @param RAYS squares of every sliding direction, up to the board edge
+ * @param LINES squares from a square towards the edge along every MoveGenerator.DELTAS direction,
+ * the knight jumps have at most one square
+ */
+public final class MoveTables {
+    private static final int[][] STEPS = new int[2 * PieceType.COUNT * Bitboard.SQUARES][];
+    private static final long[] STEP_LO = new long[STEPS.length];
+    private static final long[] STEP_HI = new long[STEPS.length];
+    private static final int[][][] RAYS = new int[STEPS.length][][];
+    private static final int[][][] LINES = new int[MoveGenerator.DELTAS.length][Bitboard.SQUARES][];
+
+    static {
+        for (int side = 0; side < 2; side++) {
+            int align = MoveGenerator.ALIGN[side];
+            for (int type = 0; type < PieceType.COUNT; type++) {
+                for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                    int index = index(side, type, sq);
+                    int[][] offsets = MoveGenerator.STEPS[type];
+                    int[] steps = new int[offsets.length];
+                    int count = 0;
+                    for (int[] offset : offsets) {
+                        int to = offset(sq, offset[0], offset[1] * align);
+                        if (to >= 0) {
+                            steps[count++] = to;
+                            if (to < 64) {
+                                STEP_LO[index] |= 1L << to;
+                            } else {
+                                STEP_HI[index] |= 1L << (to - 64);
+                            }
+                        }
+                    }
+                    STEPS[index] = Arrays.copyOf(steps, count);
+
+                    int[][] dirs = MoveGenerator.SLIDES[type];
+                    int[][] rays = new int[dirs.length][];
+                    for (int d = 0; d < dirs.length; d++) {
+                        rays[d] = walk(sq, dirs[d][0], dirs[d][1] * align, 8);
+                    }
+                    RAYS[index] = rays;
+                }
+            }
+        }
+        for (int dir = 0; dir < MoveGenerator.DELTAS.length; dir++) {
+            // Knight jumps are no lines
+            int maxLength = dir < 8 ? 8 : 1;
+            for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                LINES[dir][sq] = walk(sq, MoveGenerator.DELTAS[dir][0], MoveGenerator.DELTAS[dir][1], maxLength);
+            }
+        }
+    }
+
+    private MoveTables() {}
+
+    // Square reached from sq by an absolute offset, -1 if off the board
+    private static int offset(int sq, int dx, int dy) {
+        int x = Bitboard.fileOf(sq) + dx;
+        int y = Bitboard.rankOf(sq) + dy;
+        return x >= 0 && x < Bitboard.FILES && y >= 0 && y < Bitboard.RANKS ? Bitboard.square(x, y) : -1;
+    }
+
+    private static int[] walk(int sq, int dx, int dy, int maxLength) {
+        int[] squares = new int[maxLength];
+        int count = 0;
+        for (int to = offset(sq, dx, dy); to >= 0 && count < maxLength; to = offset(to, dx, dy)) {
+            squares[count++] = to;
+        }
+        return Arrays.copyOf(squares, count);
+    }
+
+    /**
+     * Table index of a piece on a square.
+     * @param side side index
+     * @param type type index
+     * @param sq square index
+     * @return index into the step and ray tables
+     */
+    public static int index(int side, int type, int sq) {
+        return (side * PieceType.COUNT + type) * Bitboard.SQUARES + sq;
+    }
+
+    /**
+     * Get the squares a piece reaches with a single step.
+     * @param index table index, see index()
+     * @return step squares, must not be modified
+     */
+    public static int[] steps(int index) {
+        return STEPS[index];
+    }
+
+    /**
+     * Checks whether a piece reaches a square with a single step.
+     * @param index table index, see index()
+     * @param to destination square
+     * @return true if the square is a step square
+     */
+    public static boolean stepsTo(int index, int to) {
+        return Bitboard.test(STEP_LO[index], STEP_HI[index], to);
+    }
+
+    /**
+     * Get the sliding rays of a piece, each running to the board edge.
+     * @param index table index, see index()
+     * @return rays, must not be modified
+     */
+    public static int[][] rays(int index) {
+        return RAYS[index];
+    }
+
+    /**
+     * Get the squares from a square towards the board edge.
+     * @param dir direction index into MoveGenerator.DELTAS
+     * @param sq starting square, not included
+     * @return squares nearest first, must not be modified
+     */
+    static int[] line(int dir, int sq) {
+        return LINES[dir][sq];
+    }
+}
@@ -0,0 +1,94 @@
+package com.beanshogi.core.board;
+
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Static helpers for moves packed into a single int, used by the search so that no objects are created per move.
+ * Layout (low to high bits):
+ * to square (7), from square (7, zero for drops), moved piece type (4), drop flag (1),
+ * promotion flag (1), captured piece type + 1 (4, zero when nothing is captured).
+ * The value 0 never encodes a real move and stands for "no move".
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+
+    private static final int SQUARE_MASK = 0x7F;
+    private static final int TYPE_MASK = 0xF;
+    private static final int FROM_SHIFT = 7;
+    private static final int TYPE_SHIFT = 14;
+    private static final int DROP_FLAG = 1 << 18;
+    private static final int PROMOTION_FLAG = 1 << 19;
+    private static final int CAPTURE_SHIFT = 20;
+
+    private PackedMove() {}
+
+    /**
+     * Pack a board move.
+     * @param from starting square
+     * @param to destination square
+     * @param type type of the moved piece before promotion
+     * @param promote whether the piece promotes
+     * @param capturedType type of the captured piece, -1 if none
+     * @return packed move
+     */
+    public static int boardMove(int from, int to, int type, boolean promote, int capturedType) {
+        return to
+            | (from << FROM_SHIFT)
+            | (type << TYPE_SHIFT)
+            | (promote ? PROMOTION_FLAG : 0)
+            | ((capturedType + 1) << CAPTURE_SHIFT);
+    }
+
+    /**
+     * Pack a drop from hand.
+     * @param type type of the dropped piece
+     * @param to destination square
+     * @return packed move
+     */
+    public static int drop(int type, int to) {
+        return to | (type << TYPE_SHIFT) | DROP_FLAG;
+    }
+
+    public static int to(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int from(int move) {
+        return (move >>> FROM_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int pieceType(int move) {
+        return (move >>> TYPE_SHIFT) & TYPE_MASK;
+    }
+
+    public static boolean isDrop(int move) {
+        return (move & DROP_FLAG) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_FLAG) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move >>> CAPTURE_SHIFT) != 0;
+    }
+
+    /**
+     * Get the captured piece type.
+     * @param move packed move
+     * @return type index of the captured piece, -1 if none
+     */
+    public static int capturedType(int move) {
+        return ((move >>> CAPTURE_SHIFT) & TYPE_MASK) - 1;
+    }
+
+    /**
+     * Get the type the moved piece has after the move.
+     * @param move packed move
+     * @return type index standing on the destination square
+     */
+    public static int resultType(int move) {
+        int type = pieceType(move);
+        return isPromotion(move) ? PieceType.promote(type) : type;
+    }
+}
@@ -0,0 +1,161 @@
+package com.beanshogi.core.board;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.beanshogi.core.game.Game;
+import com.beanshogi.core.game.Player;
+import com.beanshogi.core.game.PlayerType;
+import com.beanshogi.core.game.Sides;
+
+/**
+ * Perft (performance test) driver for the legal move generator.
+ * Counts the leaf nodes of the full legal move tree to a fixed depth, which validates move generation against
+ * known numbers and measures its throughput. The tree is walked on a private copy of the board core,
+ * the board the driver was created from is never touched.
+ * Command line: perft &lt;depth&gt; [divide] [sfen &lt;sfen&gt;] - without an SFEN the Game start position is used.
+ * @param state private copy of the position under test
+ * @param generator legal move generator
+ * @param lists one reusable move list per remaining depth
+ */
+public final class Perft {
+    private final BoardState state = new BoardState();
+    private final MoveGenerator generator = new MoveGenerator();
+    private MoveList[] lists = new MoveList[0];
+
+    /**
+     * Create a driver for the current position of a board.
+     * @param board the board to copy
+     */
+    public Perft(Board board) {
+        state.copyFrom(board.getState());
+    }
+
+    /**
+     * Create a driver for an SFEN position.
+     * @param sfen the position
+     */
+    public Perft(String sfen) {
+        Sfen.toState(sfen, state);
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree.
+     * @param depth depth in plies, 0 counts the position itself
+     * @return number of leaf nodes
+     */
+    public long count(int depth) {
+        ensureLists(depth);
+        return perft(depth);
+    }
+
+    /**
+     * Count the leaf nodes below every legal root move.
+     * @param depth depth in plies including the root move, at least 1
+     * @return node counts keyed by the root move in USI notation, in generation order
+     */
+    public Map<String, Long> divide(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1, got " + depth);
+        }
+        ensureLists(depth);
+        Map<String, Long> result = new LinkedHashMap<>();
+        MoveList moves = lists[depth];
+        generator.generateLegal(state, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            state.makeMove(move);
+            result.put(Sfen.formatMove(move), perft(depth - 1));
+            state.unmakeMove(move);
+        }
+        return result;
+    }
+
+    private long perft(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = lists[depth];
+        generator.generateLegal(state, moves);
+        // Bulk counting: the last ply only needs the size of the legal move list
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            state.makeMove(move);
+            nodes += perft(depth - 1);
+            state.unmakeMove(move);
+        }
+        return nodes;
+    }
+
+    private void ensureLists(int depth) {
+        if (lists.length <= depth) {
+            int old = lists.length;
+            lists = Arrays.copyOf(lists, depth + 1);
+            for (int i = old; i <= depth; i++) {
+                lists[i] = new MoveList();
+            }
+        }
+    }
+
+    /**
+     * Command line entry: prints node counts and nodes per second for every depth up to the given one,
+     * or the per move breakdown of the last depth with "divide".
+     * @param args depth, optional "divide", optional "sfen" followed by the position
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: perft <depth> [divide] [sfen <sfen>]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = false;
+        String sfen = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("divide")) {
+                divide = true;
+            } else if (args[i].equals("sfen")) {
+                sfen = String.join(" ", Arrays.copyOfRange(args, i + 1, args.length));
+                break;
+            } else {
+                throw new IllegalArgumentException("Unknown perft argument: " + args[i]);
+            }
+        }
+        Perft perft = sfen != null ? new Perft(sfen) : new Perft(startBoard());
+
+        if (divide) {
+            long start = System.nanoTime();
+            Map<String, Long> counts = perft.divide(depth);
+            long total = 0;
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.println();
+            System.out.println("Moves: " + counts.size());
+            report(depth, total, System.nanoTime() - start);
+            return;
+        }
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = perft.count(d);
+            report(d, nodes, System.nanoTime() - start);
+        }
+    }
+
+    private static Board startBoard() {
+        return new Game(Arrays.asList(
+            new Player(Sides.SENTE, "Sente", PlayerType.AI),
+            new Player(Sides.GOTE, "Gote", PlayerType.AI))).getBoard();
+    }
+
+    private static void report(int depth, long nodes, long nanos) {
+        long millis = nanos / 1_000_000L;
+        long nps = nanos > 0 ? nodes * 1_000_000_000L / nanos : 0;
+        System.out.println("perft " + depth + ": " + nodes + " nodes in " + millis + " ms (" + nps + " nps)");
+    }
+}
@@ -0,0 +1,69 @@
+package com.beanshogi.core.board;
+
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Static evaluation terms of a piece standing on a square, summed incrementally by the board core.
+ * A term is the material value of the piece plus the central control and promotion zone bonuses, seen from
+ * one side: pieces of that side count positive, the opponent's negative. The advancement bonus depends on the
+ * side the score is seen from, so every term is stored for both points of view.
+ */
+public final class PieceSquareScores {
+    /** Bonus of a piece on the nine central squares */
+    public static final int CENTER_BONUS = 30;
+    /** Bonus of a promotable piece inside the promotion zone of the side the score is seen from */
+    public static final int ADVANCE_BONUS = 50;
+    /** Bonus of a promotable piece inside its own promotion zone */
+    public static final int PROMOTION_ZONE_BONUS = 100;
+
+    private static final int[] SCORES = new int[2 * 2 * PieceType.COUNT * Bitboard.SQUARES];
+
+    static {
+        for (int view = 0; view < 2; view++) {
+            for (int side = 0; side < 2; side++) {
+                for (int type = 0; type < PieceType.COUNT; type++) {
+                    for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+                        int term = termOf(view, side, type, sq);
+                        SCORES[index(view, side, type, sq)] = side == view ? term : -term;
+                    }
+                }
+            }
+        }
+    }
+
+    private PieceSquareScores() {}
+
+    private static int termOf(int view, int side, int type, int sq) {
+        int x = Bitboard.fileOf(sq);
+        int y = Bitboard.rankOf(sq);
+        int term = PieceType.value(type);
+        if (x >= 3 && x <= 5 && y >= 3 && y <= 5) {
+            term += CENTER_BONUS;
+        }
+        if (PieceType.isPromotable(type)) {
+            if (Bitboard.inPromotionZone(sq, view)) {
+                term += ADVANCE_BONUS;
+            }
+            if (Bitboard.inPromotionZone(sq, side)) {
+                term += PROMOTION_ZONE_BONUS;
+            }
+        }
+        return term;
+    }
+
+    private static int index(int view, int side, int type, int sq) {
+        return ((view * 2 + side) * PieceType.COUNT + type) * Bitboard.SQUARES + sq;
+    }
+
+    /**
+     * Signed score of a piece standing on a square.
+     * @param view side index the score is seen from
+     * @param side owner side index
+     * @param type type index
+     * @param sq square index
+     * @return positive for pieces of the viewing side, negative otherwise
+     */
+    public static int score(int view, int side, int type, int sq) {
+        return SCORES[index(view, side, type, sq)];
+    }
+}
@@ -0,0 +1,297 @@
+package com.beanshogi.core.board;
+
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * SFEN (shogi Forsyth-Edwards notation) support for the primitive board core.
+ * The first board row is rank a (y = 0, Gote's camp) and every row lists files 9 to 1, which is x = 0 to 8.
+ * Uppercase letters are Sente pieces, lowercase Gote pieces and a leading '+' marks a promoted piece.
+ * Moves use the USI notation: "7g7f", "8h2b+" or "P*5e".
+ */
+public final class Sfen {
+    /** The standard shogi start position */
+    public static final String START = "lnsgkgsnl/1r5b1/ppppppppp/9/9/9/PPPPPPPPP/1B5R1/LNSGKGSNL b - 1";
+
+    // Letters indexed by PieceType.ordinal() of the unpromoted types
+    private static final String LETTERS = "PLNSBRGK";
+    // Hand pieces are written from the most to the least valuable: rook, bishop, gold, silver, knight, lance, pawn
+    private static final int[] HAND_ORDER = {
+        PieceType.ROOK.ordinal(), PieceType.BISHOP.ordinal(), PieceType.GOLD.ordinal(), PieceType.SILVER.ordinal(),
+        PieceType.KNIGHT.ordinal(), PieceType.LANCE.ordinal(), PieceType.PAWN.ordinal()
+    };
+
+    private Sfen() {}
+
+    /**
+     * Parse the board, side to move, hands and move number of an SFEN string into a board core.
+     * The string is read in place, nothing is allocated unless it is invalid.
+     * @param sfen the SFEN string, optionally prefixed with "sfen "
+     * @param out the state to overwrite
+     * @return the move number, 1 if the string has none
+     * @throws IllegalArgumentException if the string is no valid SFEN
+     */
+    public static int toState(CharSequence sfen, BoardState out) {
+        out.clear();
+        int i = skipSpaces(sfen, 0);
+        if (startsWith(sfen, i, "sfen ")) {
+            i = skipSpaces(sfen, i + 5);
+        }
+
+        // Board rows
+        int x = 0;
+        int y = 0;
+        boolean promoted = false;
+        for (; i < sfen.length() && sfen.charAt(i) != ' '; i++) {
+            char c = sfen.charAt(i);
+            if (c == '/') {
+                if (x != Bitboard.FILES || promoted) {
+                    throw invalid(sfen, "row " + (y + 1) + " is incomplete");
+                }
+                x = 0;
+                y++;
+            } else if (c == '+') {
+                promoted = true;
+            } else if (c >= '1' && c <= '9') {
+                x += c - '0';
+            } else {
+                int type = typeOf(c);
+                if (type < 0 || x >= Bitboard.FILES || y >= Bitboard.RANKS) {
+                    throw invalid(sfen, "unexpected '" + c + "'");
+                }
+                if (promoted) {
+                    if (!PieceType.isPromotable(type)) {
+                        throw invalid(sfen, "'" + c + "' can't be promoted");
+                    }
+                    type = PieceType.promote(type);
+                }
+                out.put(Bitboard.square(x, y), Character.isUpperCase(c) ? 0 : 1, type);
+                promoted = false;
+                x++;
+            }
+            if (x > Bitboard.FILES) {
+                throw invalid(sfen, "row " + (y + 1) + " is too long");
+            }
+        }
+        if (y != Bitboard.RANKS - 1 || x != Bitboard.FILES) {
+            throw invalid(sfen, "the board needs 9 full rows");
+        }
+
+        // Side to move
+        i = skipSpaces(sfen, i);
+        if (i >= sfen.length() || (sfen.charAt(i) != 'b' && sfen.charAt(i) != 'w')) {
+            throw invalid(sfen, "side to move must be 'b' or 'w'");
+        }
+        out.setSideToMove(sfen.charAt(i) == 'b' ? 0 : 1);
+
+        // Hands, "-" when both are empty
+        i = skipSpaces(sfen, i + 1);
+        if (i < sfen.length() && sfen.charAt(i) == '-') {
+            return parseMoveNumber(sfen, i + 1);
+        }
+        int count = 0;
+        for (; i < sfen.length() && sfen.charAt(i) != ' '; i++) {
+            char c = sfen.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // Capped so a long digit run can't overflow, any count this large is rejected below
+                count = Math.min(count * 10 + (c - '0'), 100);
+                continue;
+            }
+            int type = typeOf(c);
+            if (type < 0 || type >= PieceType.HAND_COUNT) {
+                throw invalid(sfen, "unexpected hand piece '" + c + "'");
+            }
+            int side = Character.isUpperCase(c) ? 0 : 1;
+            int n = Math.max(count, 1);
+            if (out.handCount(side, type) + n > PieceType.maxInHand(type)) {
+                throw invalid(sfen, "more than " + PieceType.maxInHand(type) + " '" + c + "' in hand");
+            }
+            for (; n > 0; n--) {
+                out.addToHand(side, type);
+            }
+            count = 0;
+        }
+        if (count > 0) {
+            throw invalid(sfen, "hand count without a piece");
+        }
+        return parseMoveNumber(sfen, i);
+    }
+
+    private static int parseMoveNumber(CharSequence sfen, int i) {
+        i = skipSpaces(sfen, i);
+        if (i >= sfen.length()) {
+            return 1;
+        }
+        int number = 0;
+        for (; i < sfen.length() && sfen.charAt(i) != ' '; i++) {
+            char c = sfen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalid(sfen, "move number must be a number");
+            }
+            number = number * 10 + (c - '0');
+        }
+        return Math.max(1, number);
+    }
+
+    /**
+     * Write a board core as SFEN.
+     * @param state the position
+     * @param moveNumber the move number, 1 for the first move of a game
+     * @return the SFEN string
+     */
+    public static String toSfen(BoardState state, int moveNumber) {
+        StringBuilder sb = new StringBuilder(96);
+        write(state, moveNumber, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append a board core as SFEN to a builder, so many positions can be written through one buffer.
+     * @param state the position
+     * @param moveNumber the move number, 1 for the first move of a game
+     * @param sb target builder
+     */
+    public static void write(BoardState state, int moveNumber, StringBuilder sb) {
+        for (int y = 0; y < Bitboard.RANKS; y++) {
+            if (y > 0) {
+                sb.append('/');
+            }
+            int empty = 0;
+            for (int x = 0; x < Bitboard.FILES; x++) {
+                int code = state.pieceAt(Bitboard.square(x, y));
+                if (code == BoardState.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                int type = BoardState.typeOf(code);
+                if (PieceType.isPromoted(type)) {
+                    sb.append('+');
+                }
+                char letter = LETTERS.charAt(PieceType.demote(type));
+                sb.append(BoardState.sideOf(code) == 0 ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                sb.append((char) ('0' + empty));
+            }
+        }
+        sb.append(state.getSideToMove() == 0 ? " b " : " w ");
+
+        int length = sb.length();
+        for (int side = 0; side < 2; side++) {
+            for (int type : HAND_ORDER) {
+                int count = state.handCount(side, type);
+                if (count == 0) {
+                    continue;
+                }
+                if (count > 1) {
+                    sb.append(count);
+                }
+                char letter = LETTERS.charAt(type);
+                sb.append(side == 0 ? letter : Character.toLowerCase(letter));
+            }
+        }
+        if (sb.length() == length) {
+            sb.append('-');
+        }
+        sb.append(' ').append(moveNumber);
+    }
+
+    /**
+     * Write a packed move in USI notation.
+     * @param move packed move
+     * @return the move, e.g. "7g7f", "8h2b+" or "P*5e"
+     */
+    public static String formatMove(int move) {
+        StringBuilder sb = new StringBuilder(5);
+        if (PackedMove.isDrop(move)) {
+            sb.append(LETTERS.charAt(PackedMove.pieceType(move))).append('*');
+        } else {
+            appendSquare(sb, PackedMove.from(move));
+        }
+        appendSquare(sb, PackedMove.to(move));
+        if (PackedMove.isPromotion(move)) {
+            sb.append('+');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Read a move in USI notation for the side to move of a position.
+     * Only the notation is checked, not whether the move is legal in the position.
+     * @param usi the move, e.g. "7g7f", "8h2b+" or "P*5e"
+     * @param state the position the move is played in, used for the moved and captured piece types
+     * @return packed move
+     * @throws IllegalArgumentException if the notation is invalid or no piece stands on the starting square
+     */
+    public static int parseMove(CharSequence usi, BoardState state) {
+        int length = usi.length();
+        if (length < 4 || length > 5) {
+            throw new IllegalArgumentException("Invalid USI move \"" + usi + "\"");
+        }
+        int to = parseSquare(usi, 2);
+        if (usi.charAt(1) == '*') {
+            int type = typeOf(usi.charAt(0));
+            if (type < 0 || type >= PieceType.HAND_COUNT || !Character.isUpperCase(usi.charAt(0)) || length != 4) {
+                throw new IllegalArgumentException("Invalid USI drop \"" + usi + "\"");
+            }
+            return PackedMove.drop(type, to);
+        }
+        int from = parseSquare(usi, 0);
+        boolean promote = length == 5;
+        if (promote && usi.charAt(4) != '+') {
+            throw new IllegalArgumentException("Invalid USI move \"" + usi + "\"");
+        }
+        int code = state.pieceAt(from);
+        if (code == BoardState.EMPTY) {
+            throw new IllegalArgumentException("No piece to move in \"" + usi + "\"");
+        }
+        int target = state.pieceAt(to);
+        int captured = target == BoardState.EMPTY ? -1 : BoardState.typeOf(target);
+        return PackedMove.boardMove(from, to, BoardState.typeOf(code), promote, captured);
+    }
+
+    // Square index of a USI square like "7g" at the given offset
+    private static int parseSquare(CharSequence usi, int offset) {
+        int file = usi.charAt(offset) - '0';
+        int rank = usi.charAt(offset + 1) - 'a';
+        if (file < 1 || file > 9 || rank < 0 || rank > 8) {
+            throw new IllegalArgumentException("Invalid USI square in \"" + usi + "\"");
+        }
+        return Bitboard.square(9 - file, rank);
+    }
+
+    private static void appendSquare(StringBuilder sb, int sq) {
+        sb.append((char) ('9' - Bitboard.fileOf(sq))).append((char) ('a' + Bitboard.rankOf(sq)));
+    }
+
+    // Unpromoted type index of a piece letter in either case, -1 if unknown
+    private static int typeOf(char c) {
+        return LETTERS.indexOf(Character.toUpperCase(c));
+    }
+
+    private static int skipSpaces(CharSequence s, int i) {
+        while (i < s.length() && s.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(CharSequence s, int i, String prefix) {
+        if (s.length() - i < prefix.length()) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length(); k++) {
+            if (s.charAt(i + k) != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence sfen, String reason) {
+        return new IllegalArgumentException("Invalid SFEN \"" + sfen + "\": " + reason);
+    }
+}
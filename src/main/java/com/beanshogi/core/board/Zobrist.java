@@ -0,0 +1,76 @@
+package com.beanshogi.core.board;
+
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Zobrist key tables for the board core.
+ * A position key is the XOR of one key per (side, type, square) on the board, one key per
+ * (side, hand type, count) and the side key when gote is to move.
+ * The keys come from a fixed seed, so a position hashes to the same key in every run.
+ */
+public final class Zobrist {
+    // Upper bound for the count of one type in a hand (all 18 pawns)
+    public static final int MAX_HAND_COUNT = 18;
+
+    private static final long[] PIECE = new long[2 * PieceType.COUNT * Bitboard.SQUARES];
+    private static final long[] HAND = new long[2 * PieceType.HAND_COUNT * (MAX_HAND_COUNT + 1)];
+    private static final long SIDE;
+
+    static {
+        long seed = 0x5EED5EED5EED5EEDL;
+        for (int i = 0; i < PIECE.length; i++) {
+            seed = nextSeed(seed);
+            PIECE[i] = mix(seed);
+        }
+        for (int i = 0; i < HAND.length; i++) {
+            // An empty hand slot contributes nothing, so a fresh state has key 0
+            seed = nextSeed(seed);
+            HAND[i] = i % (MAX_HAND_COUNT + 1) == 0 ? 0L : mix(seed);
+        }
+        seed = nextSeed(seed);
+        SIDE = mix(seed);
+    }
+
+    private Zobrist() {}
+
+    /**
+     * Key of a piece standing on a square.
+     * @param side side index
+     * @param type type index
+     * @param sq square index
+     * @return piece-square key
+     */
+    public static long piece(int side, int type, int sq) {
+        return PIECE[(side * PieceType.COUNT + type) * Bitboard.SQUARES + sq];
+    }
+
+    /**
+     * Key of holding a number of pieces of one type in hand.
+     * @param side side index
+     * @param type hand type index
+     * @param count number of pieces held
+     * @return hand key, 0 for an empty slot
+     */
+    public static long hand(int side, int type, int count) {
+        return HAND[(side * PieceType.HAND_COUNT + type) * (MAX_HAND_COUNT + 1) + count];
+    }
+
+    /**
+     * Key toggled whenever the side to move changes (set while gote is to move).
+     * @return side key
+     */
+    public static long side() {
+        return SIDE;
+    }
+
+    // SplitMix64 step and finalizer
+    private static long nextSeed(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -11,10 +11,12 @@ import com.beanshogi.gui.util.SoundPlayer;
 import com.beanshogi.leaderboard.Entry;
 import com.beanshogi.leaderboard.ResultType;
 import com.beanshogi.core.ai.AIDifficulty;
+import com.beanshogi.core.ai.OpeningBook;
 import com.beanshogi.core.ai.ShogiAI;
 import com.beanshogi.core.board.Board;
 import com.beanshogi.core.board.HandGrid;
 import com.beanshogi.core.board.Move;
+import com.beanshogi.core.board.PackedMove;
 import com.beanshogi.core.pieces.Piece;
 import com.beanshogi.core.util.*;
 
@@ -56,6 +58,7 @@ public class Controller {
         this.game = game;
         this.board = game.getBoard();
         this.ai = new ShogiAI(board);
+        ai.setOpeningBook(OpeningBook.getDefault());
         this.panels = panels;
         this.renderer = new BoardRenderer(board, panels);
         this.selection = new SelectionState();
@@ -97,6 +100,7 @@ public class Controller {
      */
     public void shutdown() {
         aiExecutor.shutdownNow();
+        ai.shutdown();
     }
 
     /**
@@ -269,7 +273,7 @@ public class Controller {
 
         aiExecutor.execute(() -> {
             try {
-                Move aiMove = ai.getBestMove(turnSnapshot, difficulty);
+                int aiMove = ai.getBestMove(turnSnapshot, difficulty);
                 SwingUtilities.invokeLater(() -> handleAiMove(turnSnapshot, currentPlayer, aiMove));
             } catch (Exception e) {
                 System.err.println("AI move calculation failed: " + e.getMessage());
@@ -283,27 +287,18 @@ public class Controller {
      * Handles applying an AI move to the board.
      * @param expectedSide the side that was expected to move
      * @param aiPlayer the AI player making the move
-     * @param aiMove the computed move
+     * @param aiMove the computed packed move
      */
-    private void handleAiMove(Sides expectedSide, Player aiPlayer, Move aiMove) {
+    private void handleAiMove(Sides expectedSide, Player aiPlayer, int aiMove) {
         try {
             if (gameOver || sideOnTurn != expectedSide) {
                 return;
             }
-            if (aiMove == null) {
+            if (aiMove == PackedMove.NONE) {
                 return;
             }
 
-            Piece realMovedPiece = mapAiMovePiece(aiPlayer, aiMove, expectedSide);
-            Move realMove = new Move(
-                aiPlayer,
-                aiMove.getFrom(),
-                aiMove.getTo(),
-                realMovedPiece,
-                null,
-                aiMove.isPromotion(),
-                aiMove.isDrop()
-            );
+            Move realMove = board.unpackMove(aiPlayer.getSide(), aiMove);
 
             board.moveManager.applyMove(realMove);
             advanceTurn();
@@ -315,31 +310,6 @@ public class Controller {
         }
     }
 
-    /**
-     * Maps an AI move's piece reference to the actual piece on the board.
-     * @param aiPlayer the AI player
-     * @param aiMove the AI's calculated move
-     * @param expectedSide the expected side of the piece
-     * @return the actual piece instance on the board
-     * @throws Exceptions.PieceNotFoundException if the piece cannot be found
-     */
-    private Piece mapAiMovePiece(Player aiPlayer, Move aiMove, Sides expectedSide) {
-        Piece realMovedPiece;
-        if (aiMove.isDrop()) {
-            realMovedPiece = aiPlayer.getHandPieces().stream()
-                .filter(p -> p.getClass() == aiMove.getMovedPiece().getClass() && p.getSide() == expectedSide)
-                .findFirst()
-                .orElse(null);
-        } else {
-            realMovedPiece = board.getPiece(aiMove.getFrom());
-        }
-
-        if (realMovedPiece == null) {
-            throw new Exceptions.PieceNotFoundException("The piece for AI move is not found on board!");
-        }
-        return realMovedPiece;
-    }
-
     /**
      * Handles moving a selected board piece to a destination square.
      * @param to the destination position on the board
@@ -502,22 +472,19 @@ public class Controller {
         }
         HandGrid handGrid = board.getPlayer(handSide).getHandGrid();
 
-        for (Piece piece : handGrid.getAllPieces()) {
-            if (piece != null && piece.getHandPosition() != null && piece.getHandPosition().equals(clickPosition)) {
-                if (piece.getSide() == sideOnTurn) {
-                    List<Position> legalDrops = board.getPieceDropPoints(piece.getClass(), sideOnTurn);
-                    selection.selectHandPiece(piece, handSide, legalDrops);
-                    
-                    clearAllHighlights();
-                    panels.getBoardHighlight().highlightSquares(legalDrops);
-                    
-                    // Highlight the selected hand piece
-                    HighlightLayerPanel handHighlight = panels.getHandHighlight(handSide);
-                    handHighlight.highlightSquare(clickPosition);
-
-                    return piece;
-                }
-            }
+        Piece piece = handGrid.getPieceAt(clickPosition);
+        if (piece != null && piece.getSide() == sideOnTurn) {
+            List<Position> legalDrops = board.getPieceDropPoints(piece.getClass(), sideOnTurn);
+            selection.selectHandPiece(piece, handSide, legalDrops);
+
+            clearAllHighlights();
+            panels.getBoardHighlight().highlightSquares(legalDrops);
+
+            // Highlight the selected hand piece
+            HighlightLayerPanel handHighlight = panels.getHandHighlight(handSide);
+            handHighlight.highlightSquare(clickPosition);
+
+            return piece;
         }
         return null;
     }
@@ -3,6 +3,7 @@ package com.beanshogi.core.game;
 import java.util.List;
 
 import com.beanshogi.core.board.Board;
+import com.beanshogi.core.board.BoardState;
 import com.beanshogi.core.pieces.normal.GoldGeneral;
 import com.beanshogi.core.pieces.normal.King;
 import com.beanshogi.core.pieces.normal.Knight;
@@ -68,6 +69,44 @@ public class Game {
             board.setPiece(new Position(i, 6), new Pawn(Sides.SENTE, null, null, board));
         }
     }
+
+    /**
+     * Initializes a game from an SFEN position, continuing at its move number.
+     * @param players Players participating in game.
+     * @param sfen the position, optionally prefixed with "sfen "
+     * @throws IllegalArgumentException if the string is no valid SFEN
+     */
+    public Game(List<Player> players, String sfen) {
+        this.board = new Board(players);
+        continueAt(board.loadSfen(sfen));
+    }
+
+    /**
+     * Initializes a game from a board core position, continuing at the given move number.
+     * @param players Players participating in game.
+     * @param position the position to set up, it is only read
+     * @param moveNumber number of the move to be played next, 1 for a new game
+     */
+    public Game(List<Player> players, BoardState position, int moveNumber) {
+        this.board = new Board(players);
+        board.loadState(position);
+        continueAt(moveNumber);
+    }
+
+    // Count the moves before the loaded position and take the turn from it
+    private void continueAt(int moveNumber) {
+        board.moveManager.setArchivedMovesMade(Math.max(0, moveNumber - 1));
+        this.nextTurn = Sides.values()[board.getState().getSideToMove()];
+    }
+
+    /**
+     * Write the current position as SFEN, with the number of the move to be played next.
+     * @return the SFEN string
+     */
+    public String toSfen() {
+        return board.toSfen(board.moveManager.getNoOfMoves() + 1);
+    }
+
     public Board getBoard() {
         return board;
     }
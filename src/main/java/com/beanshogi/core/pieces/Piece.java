@@ -2,9 +2,11 @@ package com.beanshogi.core.pieces;
 
 import java.util.*;
 
+import com.beanshogi.core.board.Bitboard;
 import com.beanshogi.core.board.Board;
+import com.beanshogi.core.board.BoardState;
+import com.beanshogi.core.board.MoveTables;
 import com.beanshogi.core.game.Sides;
-import com.beanshogi.core.pieces.normal.King;
 import com.beanshogi.core.util.*;
 
 /**
@@ -77,110 +79,53 @@ public abstract class Piece {
     }
 
     /**
-     * Checks if piece may collide with a piece of same side.
-     * @param piece the piece that the caller piece get's checked against.
-     * @return true if collision occurs, false otherwise.
+     * Collect the pseudo-legal destinations of the piece from the precomputed move tables.
+     * Occupancy is read from the board core, so no square is probed through Position objects.
+     * @param isKingInclude Flag for including the opponent king's square - used for defining attack lines
+     * @return List of pseudo-legal moves, empty for a piece in hand
      */
-    private boolean selfCollide(Piece piece) {
-        // If the board isn't empty, check if the side of the piece at a given position matches -> collision
-        return piece != null && (piece.getSide() == this.getSide());
-    }
-
-    /**
-     * Checks if piece may collide with an opponent piece.
-     * @param piece the piece that the caller piece get's checked against.
-     * @return true if collision occurs, false otherwise.
-     */
-    private boolean opponentCollide(Piece piece) {
-        // If the board isn't empty, check if the side of the piece at a given position differs -> collision
-        return piece != null && (piece.getSide() != this.getSide());
-    }
-
-    /**
-     * Calculate all pseudo-legal moves for sliding pieces.
-     * @param dirs Transformation matrix for defining move directionality.
-     * @param isKingInclude Flag for including king - used for defining attack lines
-     * @return List of pseudo-legal moves
-     */
-    protected List<Position> getLegalMovesSlider(int[][] dirs, boolean isKingInclude) {
-        List<Position> legalMoves = new ArrayList<>();
-        for (int[] dir : dirs) {
-            int nx = boardPosition.x;
-            int ny = boardPosition.y;
-            while (true) {
-                nx += dir[0];
-                ny += dir[1] * side.getAlignFactor();
-                Position nPos = new Position(nx, ny);
-                if (!nPos.inBounds()) {
-                    break;     // Stop if out of board bounds
-                }
-                // Get the piece at target for comparing
-                Piece target = board.getPiece(nPos);
-
-                if (isKingInclude && target != null && target instanceof King) {
-                    legalMoves.add(nPos);
-                    return legalMoves; // early exit, king found
-                }
-
-                if (!isKingInclude && target != null && target instanceof King) {
-                    break; // stop path for normal moves
-                }
-
-                if (selfCollide(target)) {
-                    break;    // Stop if own piece
+    private List<Position> collectMoves(boolean isKingInclude) {
+        List<Position> moves = new ArrayList<>();
+        if (boardPosition == null) {
+            return moves;
+        }
+        BoardState state = board.getState();
+        int own = side.ordinal();
+        int index = MoveTables.index(own, getType().ordinal(), Bitboard.square(boardPosition));
+        for (int to : MoveTables.steps(index)) {
+            if (canEnter(state.pieceAt(to), own, isKingInclude)) {
+                moves.add(Bitboard.position(to));
+            }
+        }
+        for (int[] ray : MoveTables.rays(index)) {
+            for (int to : ray) {
+                int code = state.pieceAt(to);
+                if (code == BoardState.EMPTY || canEnter(code, own, isKingInclude)) {
+                    moves.add(Bitboard.position(to));
                 }
-                legalMoves.add(nPos);
-
-                // The first opponent piece in line can be added as a legal move, qualifies as a capture
-                if (opponentCollide(target)) {
-                    break; // Stop if opponent piece
+                // The first piece in line blocks the ray, an opponent piece qualifies as a capture
+                if (code != BoardState.EMPTY) {
+                    break;
                 }
             }
         }
-        return legalMoves;
+        return moves;
     }
 
-    /**
-     * Calculate all pseudo-legal moves for normal, non sliding pieces.
-     * @param offsets Transformation matrix for defining move offset radius.
-     * @param isKingInclude Flag for including king - used for defining attack lines
-     * @return List of pseudo-legal movesSS
-     */
-    protected List<Position> getLegalMovesNormal(int[][] offsets, boolean isKingInclude) {
-        int x = boardPosition.x;
-        int y = boardPosition.y;
-        List<Position> legalMoves = new ArrayList<>();
-        for (int[] offset : offsets) {
-            Position nPos = new Position(x + offset[0], y + offset[1] * side.getAlignFactor());
-            if (!nPos.inBounds()) {
-                continue;
-            }
-            // Get target piece for comparison
-            Piece target = board.getPiece(nPos);
-            if (selfCollide(target)) {
-                continue;
-            }
-            if (isKingInclude && target != null && target instanceof King) {
-                legalMoves.add(nPos);
-                return legalMoves; // early exit, king found
-            }
-
-            if (!isKingInclude && target != null && target instanceof King) {
-                continue; // Continue on the other offsets
-            }
-
-            legalMoves.add(nPos);
-            // opponentCollide check not needed, every normal piece can move into opponent's square to capture
+    // Empty squares and opponent pieces can be entered, the opponent king only when attack lines are wanted
+    private static boolean canEnter(int code, int own, boolean isKingInclude) {
+        if (code == BoardState.EMPTY) {
+            return true;
         }
-        return legalMoves;
+        return BoardState.sideOf(code) != own && (isKingInclude || BoardState.typeOf(code) != PieceType.KING.ordinal());
     }
 
     /**
-     * Determine if a piece will change when promoted
+     * Determine if a piece will change when promoted - a lookup in the piece type table
      * @return can or cannot promote
      */
     public boolean canPromote() {
-        return !this.promote().equals(this);
+        return getType().isPromotable();
     }
 
     /**
@@ -201,30 +146,44 @@ public abstract class Piece {
         return cloneForBoard(board);
     }
 
-    /* Abstract functions */
-
     /**
      * Public legal move interface, does not include king in evaluation.
      * @return list of legal moves
      */
-    public abstract List<Position> getLegalMoves();
+    public List<Position> getLegalMoves() {
+        return collectMoves(false);
+    }
 
     /**
-     * Public attack move interface, may only contain move lines that attack the king (due to early return).
+     * Public attack move interface, also contains the squares of the opponent king that the piece attacks.
      * @return list of attack moves
      */
-    public abstract List<Position> getAttackMoves();
+    public List<Position> getAttackMoves() {
+        return collectMoves(true);
+    }
 
     /**
      * Individual values for pieces - used for AI
      * @return value of piece
      */
-    public abstract int value();
- 
+    public int value() {
+        return getType().value();
+    }
+
     /**
      * Clones individual pieces so that the copy of board is a deep copy
      * @param board board for the piece is cloned
      * @return cloned piece
      */
-    public abstract Piece cloneForBoard(Board board);
+    public Piece cloneForBoard(Board board) {
+        return getType().create(side, boardPosition, handPosition, board);
+    }
+
+    /* Abstract functions */
+
+    /**
+     * Compact type identity of the piece - used by the primitive board core and its move tables
+     * @return type of piece
+     */
+    public abstract PieceType getType();
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.beanshogi.core.pieces;
+
+import com.beanshogi.core.board.Board;
+import com.beanshogi.core.game.Sides;
+import com.beanshogi.core.pieces.normal.*;
+import com.beanshogi.core.pieces.normal.slider.*;
+import com.beanshogi.core.pieces.promoted.*;
+import com.beanshogi.core.pieces.promoted.slider.*;
+import com.beanshogi.core.util.Position;
+
+/**
+ * Compact identity of every shogi piece kind, used as an index by the primitive board core.
+ * The first seven types are the ones that can be held in hand, and every promotable type
+ * sits exactly PROMOTION_OFFSET slots before its promoted counterpart.
+ * Every type also carries the constructor of its piece class, so pieces are created, promoted
+ * and demoted without reflection.
+ */
+public enum PieceType {
+    PAWN(100, Pawn::new),
+    LANCE(300, Lance::new),
+    KNIGHT(350, Knight::new),
+    SILVER(500, SilverGeneral::new),
+    BISHOP(800, Bishop::new),
+    ROOK(900, Rook::new),
+    GOLD(600, GoldGeneral::new),
+    KING(20000, King::new),
+    PROMOTED_PAWN(600, PromotedPawn::new),
+    PROMOTED_LANCE(600, PromotedLance::new),
+    PROMOTED_KNIGHT(600, PromotedKnight::new),
+    PROMOTED_SILVER(600, PromotedSilverGeneral::new),
+    PROMOTED_BISHOP(1200, PromotedBishop::new),
+    PROMOTED_ROOK(1500, PromotedRook::new);
+
+    /**
+     * Constructor of a piece class.
+     */
+    @FunctionalInterface
+    public interface Factory {
+        Piece create(Sides side, Position boardPosition, Position handPosition, Board board);
+    }
+
+    /** Number of piece types */
+    public static final int COUNT = 14;
+    /** Number of piece types that can be held in hand (PAWN..GOLD) */
+    public static final int HAND_COUNT = 7;
+
+    private static final int PROMOTION_OFFSET = 8;
+    private static final PieceType[] VALUES = values();
+    // Pieces of every hand type in a full set, indexed by ordinal
+    private static final int[] SET_COUNTS = {18, 4, 4, 4, 2, 2, 4};
+
+    private final int value;
+    private final Factory factory;
+
+    PieceType(int value, Factory factory) {
+        this.value = value;
+        this.factory = factory;
+    }
+
+    /**
+     * Create a piece of this type.
+     * @param side owner of the piece
+     * @param boardPosition position on the board, null for a piece in hand
+     * @param handPosition position in the hand, null for a piece on the board
+     * @param board the board the piece belongs to
+     * @return the new piece
+     */
+    public Piece create(Sides side, Position boardPosition, Position handPosition, Board board) {
+        return factory.create(side, boardPosition, handPosition, board);
+    }
+
+    /**
+     * Material value of the type, matching Piece.value() - used for AI
+     * @return value of type
+     */
+    public int value() {
+        return value;
+    }
+
+    /**
+     * Get the material value of the type at the given index.
+     * @param type type index
+     * @return value of type
+     */
+    public static int value(int type) {
+        return VALUES[type].value;
+    }
+
+    /**
+     * Get the type belonging to an index.
+     * @param index ordinal of the type
+     * @return the piece type
+     */
+    public static PieceType of(int index) {
+        return VALUES[index];
+    }
+
+    /**
+     * Get the most pieces of a hand type one side can hold, all pieces of that type in a set.
+     * @param type hand type index (below HAND_COUNT)
+     * @return 18 for pawns, 2 for bishops and rooks, 4 for the others
+     */
+    public static int maxInHand(int type) {
+        return SET_COUNTS[type];
+    }
+
+    /**
+     * Checks whether the type at the given index has a promoted form.
+     * @param type type index
+     * @return true for pawn, lance, knight, silver, bishop and rook
+     */
+    public static boolean isPromotable(int type) {
+        return type < GOLD.ordinal();
+    }
+
+    /**
+     * Checks whether the type at the given index is a promoted type.
+     * @param type type index
+     * @return true if promoted
+     */
+    public static boolean isPromoted(int type) {
+        return type >= PROMOTION_OFFSET;
+    }
+
+    /**
+     * Get the promoted type index, or the same index for types that can't promote.
+     * @param type type index
+     * @return promoted type index
+     */
+    public static int promote(int type) {
+        return isPromotable(type) ? type + PROMOTION_OFFSET : type;
+    }
+
+    /**
+     * Get the unpromoted type index, or the same index for types that are not promoted.
+     * @param type type index
+     * @return unpromoted type index
+     */
+    public static int demote(int type) {
+        return isPromoted(type) ? type - PROMOTION_OFFSET : type;
+    }
+
+    public boolean isPromotable() {
+        return isPromotable(ordinal());
+    }
+
+    /**
+     * Get the promoted type, or this type if it can't promote.
+     * @return promoted type
+     */
+    public PieceType promoted() {
+        return VALUES[promote(ordinal())];
+    }
+
+    /**
+     * Get the unpromoted type, or this type if it is not promoted.
+     * @return unpromoted type
+     */
+    public PieceType demoted() {
+        return VALUES[demote(ordinal())];
+    }
+
+    public boolean isPromoted() {
+        return isPromoted(ordinal());
+    }
+}
@@ -8,8 +8,6 @@ import com.beanshogi.core.board.Board;
  * Defines the promoted piece of a specific shogi piece.
  */
 public abstract class PromotedPiece extends Piece implements Promotable {
-    protected abstract Class<? extends Piece> getDemotedClass();
-
     public PromotedPiece(Sides side, Position boardPosition, Position handPosition, Board board) {
         super(side, boardPosition,handPosition, board);
     }
@@ -21,13 +19,7 @@ public abstract class PromotedPiece extends Piece implements Promotable {
 
     @Override
     public Piece demote() {
-        try {
-            return getDemotedClass()
-                    .getConstructor(Sides.class, Position.class, Position.class, Board.class)
-                    .newInstance(side, boardPosition, handPosition, board);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        return getType().demoted().create(side, boardPosition, handPosition, board);
     }
 
     @Override
@@ -6,22 +6,13 @@ import com.beanshogi.core.board.Board;
 
 public abstract class UnPromotedPiece extends Piece implements Promotable {
 
-    // Each concrete unpromoted piece must define the class it promotes to
-    protected abstract Class<? extends Piece> getPromotedClass();
-
     public UnPromotedPiece(Sides side, Position boardPosition, Position handPosition, Board board) {
         super(side, boardPosition,handPosition, board);
     }
 
     @Override
     public Piece promote() {
-        try {
-            return getPromotedClass()
-                    .getConstructor(Sides.class, Position.class, Position.class, Board.class)
-                    .newInstance(side, boardPosition, handPosition, board);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        return getType().promoted().create(side, boardPosition, handPosition, board);
     }
 
     @Override
@@ -1,40 +1,20 @@
 package com.beanshogi.core.pieces.normal;
 
-import java.util.*;
-
-import com.beanshogi.core.util.*;
-import com.beanshogi.core.pieces.Piece;
-import com.beanshogi.core.game.Sides;
 import com.beanshogi.core.board.Board;
+import com.beanshogi.core.game.Sides;
+import com.beanshogi.core.pieces.Piece;
+import com.beanshogi.core.pieces.PieceType;
+import com.beanshogi.core.util.*;
 
 // Gold General (金)
 public class GoldGeneral extends Piece {
-    // The transformation matrix for the current X and Y 
-    private static final int[][] goldOffsets = {{-1,1},{0,1},{1,1},
-                                                {-1,0},/*GG*/{1,0},
-                                                       {0,-1}};
 
     public GoldGeneral(Sides side, Position boardPosition, Position handPosition, Board board) {
         super(side, boardPosition, handPosition, board);
     }
 
     @Override
-    public List<Position> getLegalMoves() {
-        return getLegalMovesNormal(goldOffsets, false);
-    }
-
-    @Override
-    public List<Position> getAttackMoves() {
-        return getLegalMovesNormal(goldOffsets, true);
-    }
-
-    @Override
-    public int value() {
-        return 600;
-    }
-
-    @Override
-    public Piece cloneForBoard(Board board) {
-        return new GoldGeneral(this.side, this.boardPosition, this.handPosition, board);
+    public PieceType getType() {
+        return PieceType.GOLD;
     }
 }
\ No newline at end of file
@@ -21,13 +21,4 @@ public class Exceptions {
             super(message);
         }
     }
-
-    /**
-     * Thrown when attempting to add a piece to a full hand grid.
-     */
-    public static class HandFullException extends RuntimeException {
-        public HandFullException(String message) {
-            super(message);
-        }
-    }
 }
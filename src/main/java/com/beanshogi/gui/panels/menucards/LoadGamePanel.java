@@ -150,7 +150,7 @@ public class LoadGamePanel extends JPanel {
      */
     private void refreshSaveList() {
         File dir = new File("savegame");
-        File[] files = dir.exists() ? dir.listFiles((d, n) -> n.toLowerCase().endsWith(".json")) : null;
+        File[] files = dir.exists() ? dir.listFiles((d, n) -> GameSaveLoad.isSaveFile(n)) : null;
 
         listModel.clear();
         if (files == null || files.length == 0) {
@@ -195,8 +195,8 @@ public class LoadGamePanel extends JPanel {
                 gote != null && gote.getType() == PlayerType.AI ? "AI" : "Human",
                 board.moveManager != null ? board.moveManager.getNoOfMoves() : 0,
                 board.getAllPieces().size(),
-                sente != null ? sente.getHandPieces().size() : 0,
-                gote != null ? gote.getHandPieces().size() : 0
+                sente != null ? sente.getHandGrid().size() : 0,
+                gote != null ? gote.getHandGrid().size() : 0
             );
             previewArea.setText(text);
 
@@ -0,0 +1,200 @@
+package com.beanshogi.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.beanshogi.core.ai.AIDifficulty;
+import com.beanshogi.core.board.Bitboard;
+import com.beanshogi.core.board.Board;
+import com.beanshogi.core.board.BoardState;
+import com.beanshogi.core.board.MoveHistory;
+import com.beanshogi.core.game.Game;
+import com.beanshogi.core.game.Player;
+import com.beanshogi.core.game.PlayerType;
+import com.beanshogi.core.game.Sides;
+import com.beanshogi.core.pieces.PieceType;
+
+/**
+ * Versioned binary save format of a game, read and written through NIO channels.
+ * Layout (big endian):
+ * header: magic "BSHG", version byte, flags byte (reserved, 0)
+ * players: count byte, then per player side, type and difficulty bytes and the name as a length prefixed UTF-8 string
+ * position: 81 square codes (BoardState codes, 0 for empty), 2 x 7 hand counts, side to move byte
+ * moves: move number of the position (int), count of moves (int), current ply (int, since version 2), one short per move
+ * Since version 2 the position is the start of the move line and the moves are the whole line in the compact
+ * MoveHistory form, including undone moves. Loading replays the line, which restores undo, redo and repetition.
+ * Version 1 files stored the current position and a record of the moves, they load without history.
+ * A typical game takes a few hundred bytes, compared to tens of kilobytes of pretty printed JSON.
+ */
+final class GameFormat {
+    static final int VERSION = 2;
+
+    private static final byte[] MAGIC = {'B', 'S', 'H', 'G'};
+
+    private GameFormat() {}
+
+    /**
+     * Write a game to a channel.
+     * @param game the game to save
+     * @param channel target channel, left open
+     * @throws IOException if the channel fails
+     */
+    static void write(Game game, WritableByteChannel channel) throws IOException {
+        Board board = game.getBoard();
+        List<Player> players = board.getPlayers();
+        MoveHistory history = board.moveManager.getHistory();
+
+        byte[][] names = new byte[players.size()][];
+        int size = MAGIC.length + 2 + 1;
+        for (int i = 0; i < players.size(); i++) {
+            String name = players.get(i).getName();
+            names[i] = (name != null ? name : "").getBytes(StandardCharsets.UTF_8);
+            size += 3 + 2 + names[i].length;
+        }
+        size += Bitboard.SQUARES + 2 * PieceType.HAND_COUNT + 1 + 3 * 4 + 2 * history.size();
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC).put((byte) VERSION).put((byte) 0);
+
+        buffer.put((byte) players.size());
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            buffer.put((byte) player.getSide().ordinal());
+            buffer.put((byte) player.getType().ordinal());
+            buffer.put((byte) player.getDifficulty().ordinal());
+            buffer.putShort((short) names[i].length).put(names[i]);
+        }
+
+        BoardState state = history.getStart();
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            buffer.put((byte) state.pieceAt(sq));
+        }
+        for (int side = 0; side < 2; side++) {
+            for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+                buffer.put((byte) state.handCount(side, type));
+            }
+        }
+        buffer.put((byte) state.getSideToMove());
+
+        buffer.putInt(history.getStartMoveNumber());
+        buffer.putInt(history.size());
+        buffer.putInt(board.moveManager.getHistoryPly());
+        for (int ply = 0; ply < history.size(); ply++) {
+            buffer.putShort((short) history.getCompact(ply));
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read a game from a channel holding exactly one saved game.
+     * @param channel source channel, left open
+     * @param size number of bytes of the save
+     * @return the restored game
+     * @throws IOException if the channel fails or the data is no valid save
+     */
+    static Game read(ReadableByteChannel channel, long size) throws IOException {
+        if (size < MAGIC.length + 2 || size > Integer.MAX_VALUE) {
+            throw new IOException("Not a BeanShogi save (size " + size + ")");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Save is truncated");
+            }
+        }
+        buffer.flip();
+        try {
+            return read(buffer);
+        } catch (RuntimeException e) {
+            // Buffer underflows and out of range ordinals all mean a damaged file
+            throw new IOException("Save is damaged: " + e, e);
+        }
+    }
+
+    private static Game read(ByteBuffer buffer) throws IOException {
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                throw new IOException("Not a BeanShogi save");
+            }
+        }
+        int version = buffer.get();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported save version " + version);
+        }
+        buffer.get(); // Flags
+
+        int playerCount = buffer.get();
+        List<Player> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            Sides side = Sides.values()[buffer.get()];
+            PlayerType type = PlayerType.values()[buffer.get()];
+            AIDifficulty difficulty = AIDifficulty.values()[buffer.get()];
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            players.add(new Player(side, new String(name, StandardCharsets.UTF_8), type, difficulty));
+        }
+
+        BoardState position = new BoardState();
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int code = buffer.get();
+            if (code == BoardState.EMPTY) {
+                continue;
+            }
+            int side = BoardState.sideOf(code);
+            int type = BoardState.typeOf(code);
+            if (side > 1 || type < 0 || type >= PieceType.COUNT) {
+                throw new IOException("Invalid piece code " + code + " on square " + sq);
+            }
+            position.put(sq, side, type);
+        }
+        for (int side = 0; side < 2; side++) {
+            for (int type = 0; type < PieceType.HAND_COUNT; type++) {
+                int count = buffer.get();
+                if (count < 0 || count > PieceType.maxInHand(type)) {
+                    throw new IOException("Invalid hand count " + count + " of type " + type + " for side " + side);
+                }
+                for (int n = count; n > 0; n--) {
+                    position.addToHand(side, type);
+                }
+            }
+        }
+        position.setSideToMove(buffer.get() & 1);
+
+        int moveNumber = buffer.getInt();
+        int moveCount = buffer.getInt();
+        if (version == 1) {
+            if (moveCount < 0 || buffer.remaining() != 2 * moveCount) {
+                throw new IOException("Move record doesn't match the file size");
+            }
+            // Version 1 kept the moves as a record only, the game continues from the saved position
+            return new Game(players, position, moveNumber);
+        }
+        int currentPly = buffer.getInt();
+        if (moveCount < 0 || buffer.remaining() != 2 * moveCount || currentPly < 0 || currentPly > moveCount) {
+            throw new IOException("Move list doesn't match the file size");
+        }
+
+        Game game = new Game(players, position, moveNumber);
+        Board board = game.getBoard();
+        for (int ply = 0; ply < moveCount; ply++) {
+            int compact = buffer.getShort() & 0xFFFF;
+            int move = MoveHistory.decode(compact, board.getState());
+            board.moveManager.applyMove(board.unpackMove(Sides.values()[compact >>> 15], move));
+        }
+        // Moves past the current ply were undone before saving, they go back on the redo stack
+        for (int ply = moveCount; ply > currentPly; ply--) {
+            board.moveManager.undoMove();
+        }
+        game.setNextTurn(Sides.values()[board.getState().getSideToMove()]);
+        return game;
+    }
+}
@@ -1,6 +1,11 @@
 package com.beanshogi.io;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import com.beanshogi.core.board.Board;
 import com.beanshogi.core.game.Game;
@@ -10,8 +15,13 @@ import com.beanshogi.core.pieces.Piece;
 
 /**
  * Utility class for saving and loading game states.
+ * Games are saved in the binary GameFormat, JSON saves of earlier versions can still be loaded.
  */
 public class GameSaveLoad extends Serialize {
+    /** File extension of binary saves */
+    public static final String EXTENSION = ".bsg";
+    /** File extension of the JSON saves of earlier versions */
+    public static final String LEGACY_EXTENSION = ".json";
 
     /**
      * Saves the game automatically into format <YYYY-MM-DD_UID> 
@@ -35,16 +45,61 @@ public class GameSaveLoad extends Serialize {
             }
         }
         // Save with the new filename
-        String filename = String.format("savegame/%s_%d.json", dateToday, UID);
-        Serialize.save(game, filename);
+        String filename = String.format("savegame/%s_%d%s", dateToday, UID, EXTENSION);
+        save(game, Paths.get(filename));
         return new File(filename).getAbsolutePath();
     }
-    
+
+    /**
+     * Save a game in the binary format.
+     * @param game the game to be saved
+     * @param path target file, parent directories are created
+     */
+    public static void save(Game game, Path path) {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                parent.toFile().mkdirs();
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                GameFormat.write(game, channel);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save to " + path, e);
+        }
+    }
+
+    /**
+     * Checks whether a file name belongs to a save, binary or legacy JSON.
+     * @param fileName the name to test
+     * @return true for save files
+     */
+    public static boolean isSaveFile(String fileName) {
+        String name = fileName.toLowerCase();
+        return name.endsWith(EXTENSION) || name.endsWith(LEGACY_EXTENSION);
+    }
+
     public static Game load(String filepath) {
+        if (filepath.toLowerCase().endsWith(LEGACY_EXTENSION)) {
+            return loadLegacy(filepath);
+        }
+        Path path = Paths.get(filepath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return GameFormat.read(channel, channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load from " + filepath, e);
+        }
+    }
+
+    // JSON saves of earlier versions
+    private static Game loadLegacy(String filepath) {
         Game game = Serialize.load(filepath, Game.class);
         
         if (game != null && game.getBoard() != null) {
             restoreTransientReferences(game.getBoard());
+            // The side to move is part of the position key
+            game.getBoard().getState().setSideToMove(game.getNextTurn().ordinal());
         }
         
         return game;
@@ -86,6 +141,9 @@ public class GameSaveLoad extends Serialize {
                 // Player might not exist for this side
             }
         }
+        // Rebuild the bitboard core from the restored pieces and hands
+        board.rebuildState();
+
         // Restoring the moveManager's history isn't viable, instead, restore just the number of moves made
         int archivedMovesMade = board.moveManager.getNoOfMoves();
         board.moveManager.getRedoStack().clear();
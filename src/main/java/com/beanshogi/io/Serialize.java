@@ -3,6 +3,7 @@ package com.beanshogi.io;
 import com.beanshogi.core.pieces.Piece;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 
 import java.io.*;
 
@@ -61,16 +62,13 @@ public class Serialize {
         Gson gson = createGson();
         
         try (FileReader reader = new FileReader(filepath)) {
-            // Use a wrapper type to extract the data field
-            SaveData<?> saveData = gson.fromJson(reader, SaveData.class);
+            // Parse the wrapper with its real data type, so the file is read only once
+            SaveData<T> saveData = gson.fromJson(reader, TypeToken.getParameterized(SaveData.class, classType).getType());
             
             if (saveData == null || saveData.data == null) {
                 throw new RuntimeException("Failed to load from " + filepath);
             }
-            
-            // Convert the data field to the correct type
-            String json = gson.toJson(saveData.data);
-            return gson.fromJson(json, classType);
+            return saveData.data;
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to load from " + filepath, e);
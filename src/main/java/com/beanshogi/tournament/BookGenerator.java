@@ -0,0 +1,263 @@
+package com.beanshogi.tournament;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.beanshogi.core.ai.OpeningBook;
+import com.beanshogi.core.ai.OpeningBookBuilder;
+import com.beanshogi.core.board.BoardState;
+import com.beanshogi.core.board.MoveGenerator;
+import com.beanshogi.core.board.MoveHistory;
+import com.beanshogi.core.board.MoveList;
+import com.beanshogi.core.board.Sfen;
+import com.beanshogi.io.GameSaveLoad;
+
+/**
+ * Builds an opening book from headless self-play games and imported game collections.
+ * Imported files are either binary saves (GameSaveLoad.EXTENSION) or text files with one game per line in the
+ * USI position form: [position] startpos|sfen ... [moves <move>...]. Empty lines and lines starting with '#'
+ * are skipped. An imported game ending in checkmate counts as a win for the mating side, any other as a draw.
+ * Random opening moves of self-play games are played but not added, only the engine moves after them.
+ * Self-play starts from the Game start position, which places golds and silvers differently from the USI
+ * startpos; collections meant for games started in the GUI give that position as an sfen line.
+ * Command line: book [games N] [threads N] [opening N] [plies N] [bookplies N] [seed N] [engine ENGINE]
+ * [import FILE]... [out FILE], e.g. "book games 500 engine NORMAL:depth=4 import pro.usi".
+ */
+public class BookGenerator {
+    private BookGenerator() {}
+
+    /**
+     * Play games of an engine against itself and add their openings to a book.
+     * @param builder the book to add to
+     * @param engine engine playing both sides
+     * @param games number of games
+     * @param threads number of games running at once
+     * @param openingPlies random opening moves of every game
+     * @param maxPlies game length after which a game is a draw
+     * @param seed seed of the random openings, every game gets its own
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public static void selfPlay(OpeningBookBuilder builder, EngineConfig engine, int games, int threads,
+                                int openingPlies, int maxPlies, long seed) throws InterruptedException {
+        List<SelfPlayGame> played = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            played.add(new SelfPlayGame(engine, engine, openingPlies, seed + i, maxPlies));
+        }
+        AtomicInteger counter = new AtomicInteger(1);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "beanshogi-book-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletionService<Integer> completion = new ExecutorCompletionService<>(pool);
+            SelfPlayGame.Outcome[] outcomes = new SelfPlayGame.Outcome[games];
+            for (int i = 0; i < games; i++) {
+                int index = i;
+                completion.submit(() -> {
+                    outcomes[index] = played.get(index).play();
+                    return index;
+                });
+            }
+            // The builder is only used on this thread, and finished games are dropped right away
+            int reportEvery = Math.max(1, games / 20);
+            for (int done = 1; done <= games; done++) {
+                int index = completion.take().get();
+                SelfPlayGame game = played.set(index, null);
+                builder.addGame(game.getHistory(), game.getOpeningPlies(), winner(outcomes[index]));
+                if (done % reportEvery == 0 || done == games) {
+                    System.err.println("Finished " + done + "/" + games + " games");
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self-play game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int winner(SelfPlayGame.Outcome outcome) {
+        switch (outcome) {
+            case SENTE_WIN:
+                return 0;
+            case GOTE_WIN:
+                return 1;
+            default:
+                return OpeningBookBuilder.NO_WINNER;
+        }
+    }
+
+    /**
+     * Add the openings of a game collection to a book.
+     * @param builder the book to add to
+     * @param path a binary save or a text file of USI position lines
+     * @return number of games added
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if a line is no valid game
+     */
+    public static int importGames(OpeningBookBuilder builder, Path path) throws IOException {
+        if (path.toString().endsWith(GameSaveLoad.EXTENSION)) {
+            MoveHistory history = GameSaveLoad.load(path.toString()).getBoard().moveManager.getHistory();
+            builder.addGame(history, 0, winner(history));
+            return 1;
+        }
+        int games = 0;
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            try {
+                MoveHistory history = parseGame(trimmed);
+                builder.addGame(history, 0, winner(history));
+                games++;
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Parse a game in the USI position form.
+     * @param line [position] startpos|sfen BOARD SIDE HANDS [NUMBER] [moves MOVE...]
+     * @return the move line
+     * @throws IllegalArgumentException if the position is invalid or a move is illegal
+     */
+    static MoveHistory parseGame(String line) {
+        String[] tokens = line.split("\\s+");
+        int i = tokens[0].equals("position") ? 1 : 0;
+        BoardState position = new BoardState();
+        int moveNumber;
+        if (i < tokens.length && tokens[i].equals("startpos")) {
+            moveNumber = Sfen.toState(Sfen.START, position);
+            i++;
+        } else if (i < tokens.length && tokens[i].equals("sfen")) {
+            StringBuilder sfen = new StringBuilder();
+            for (i++; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                sfen.append(tokens[i]).append(' ');
+            }
+            moveNumber = Sfen.toState(sfen, position);
+        } else {
+            throw new IllegalArgumentException("Game needs startpos or sfen");
+        }
+
+        MoveHistory history = new MoveHistory(position, moveNumber);
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            MoveGenerator generator = new MoveGenerator();
+            MoveList legal = new MoveList();
+            for (i++; i < tokens.length; i++) {
+                int move = Sfen.parseMove(tokens[i], position);
+                generator.generateLegal(position, legal);
+                if (!contains(legal, move)) {
+                    throw new IllegalArgumentException("Illegal move " + tokens[i]);
+                }
+                history.add(position.getSideToMove(), move);
+                position.makeMove(move);
+            }
+        }
+        return history;
+    }
+
+    private static boolean contains(MoveList moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A line ending with the side to move out of legal moves was won by the other side
+    private static int winner(MoveHistory history) {
+        BoardState end = new BoardState();
+        history.positionAt(history.size(), end);
+        MoveList legal = new MoveList();
+        new MoveGenerator().generateLegal(end, legal);
+        return legal.isEmpty() ? end.getSideToMove() ^ 1 : OpeningBookBuilder.NO_WINNER;
+    }
+
+    /**
+     * Command line entry.
+     * @param args options and files to import
+     * @throws InterruptedException if interrupted while waiting for the games
+     * @throws IOException if an import can't be read or the book can't be written
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int games = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int opening = 0;
+        int plies = 256;
+        int bookPlies = 24;
+        long seed = 1;
+        EngineConfig engine = EngineConfig.parse("NORMAL:depth=4");
+        Path out = Path.of(OpeningBook.DEFAULT_PATH);
+        List<Path> imports = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "opening":
+                    opening = Integer.parseInt(args[++i]);
+                    break;
+                case "plies":
+                    plies = Integer.parseInt(args[++i]);
+                    break;
+                case "bookplies":
+                    bookPlies = Integer.parseInt(args[++i]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "engine":
+                    engine = EngineConfig.parse(args[++i]);
+                    break;
+                case "import":
+                    imports.add(Path.of(args[++i]));
+                    break;
+                case "out":
+                    out = Path.of(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (games <= 0 && imports.isEmpty()) {
+            System.out.println("Usage: book [games N] [threads N] [opening N] [plies N] [bookplies N] [seed N] "
+                + "[engine ENGINE] [import FILE]... [out FILE]");
+            System.out.println("ENGINE: EASY|NORMAL|HARD[:depth=N][:time=MS][:hash=MB], FILE: *"
+                + GameSaveLoad.EXTENSION + " save or one USI position line per game");
+            return;
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(bookPlies);
+        for (Path path : imports) {
+            System.err.println("Imported " + importGames(builder, path) + " games from " + path);
+        }
+        if (games > 0) {
+            selfPlay(builder, engine, games, threads, opening, plies, seed);
+        }
+        Path parent = out.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        builder.write(out);
+        System.out.println("Wrote " + builder.records() + " moves of " + builder.positions() + " positions to " + out);
+    }
+}
@@ -0,0 +1,103 @@
+package com.beanshogi.tournament;
+
+import java.util.Locale;
+
+import com.beanshogi.core.ai.AIDifficulty;
+import com.beanshogi.core.ai.TimeControl;
+
+/**
+ * One engine setting taking part in a tournament: a difficulty level with its own search limits.
+ * Spec format on the command line: DIFFICULTY[:depth=N][:time=MS][:hash=MB], e.g. "HARD:depth=4" or "NORMAL:time=200".
+ * Without limits the difficulty's fixed search depth is used, which keeps games fast and independent of machine load.
+ * @param name name in reports, the spec it was created from
+ * @param difficulty difficulty level (ordering noise and default depth)
+ * @param timeControl depth and time limits of every move
+ * @param hashSizeMb transposition table size per game and side
+ */
+public class EngineConfig {
+    /** Table size of tournament engines: many games run at once, each with two AIs */
+    public static final int DEFAULT_HASH_MB = 4;
+
+    private final String name;
+    private final AIDifficulty difficulty;
+    private final TimeControl timeControl;
+    private final int hashSizeMb;
+
+    public EngineConfig(String name, AIDifficulty difficulty, TimeControl timeControl, int hashSizeMb) {
+        this.name = name;
+        this.difficulty = difficulty;
+        this.timeControl = timeControl;
+        this.hashSizeMb = hashSizeMb;
+    }
+
+    /**
+     * Engine playing a difficulty level at its fixed search depth.
+     * @param difficulty the difficulty level
+     * @return the engine config
+     */
+    public static EngineConfig of(AIDifficulty difficulty) {
+        return new EngineConfig(difficulty.name(), difficulty, TimeControl.fixedDepth(difficulty.getSearchDepth()), DEFAULT_HASH_MB);
+    }
+
+    /**
+     * Parse an engine spec.
+     * @param spec DIFFICULTY[:depth=N][:time=MS][:hash=MB]
+     * @return the engine config
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    public static EngineConfig parse(String spec) {
+        String[] parts = spec.split(":");
+        AIDifficulty difficulty = AIDifficulty.valueOf(parts[0].toUpperCase(Locale.ROOT));
+        int depth = difficulty.getSearchDepth();
+        boolean depthGiven = false;
+        long timeMillis = 0;
+        int hashSizeMb = DEFAULT_HASH_MB;
+        for (int i = 1; i < parts.length; i++) {
+            String[] option = parts[i].split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Engine option must be key=value: " + parts[i]);
+            }
+            int value = Integer.parseInt(option[1]);
+            switch (option[0]) {
+                case "depth":
+                    depth = value;
+                    depthGiven = true;
+                    break;
+                case "time":
+                    timeMillis = value;
+                    break;
+                case "hash":
+                    hashSizeMb = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown engine option: " + option[0]);
+            }
+        }
+        // A time limit alone searches as deep as the time allows
+        if (timeMillis > 0 && !depthGiven) {
+            depth = TimeControl.MAX_DEPTH;
+        }
+        return new EngineConfig(spec, difficulty, new TimeControl(timeMillis, depth), hashSizeMb);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public AIDifficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public TimeControl getTimeControl() {
+        return timeControl;
+    }
+
+    public int getHashSizeMb() {
+        return hashSizeMb;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,107 @@
+package com.beanshogi.tournament;
+
+/**
+ * Win/draw/loss record of one engine against another, with an Elo estimate of the difference.
+ * @param engine the engine the record belongs to
+ * @param opponent the opposing engine
+ * @param wins games won by the engine
+ * @param draws drawn games
+ * @param losses games lost by the engine
+ */
+public class MatchStats {
+    private final EngineConfig engine;
+    private final EngineConfig opponent;
+    private int wins;
+    private int draws;
+    private int losses;
+
+    public MatchStats(EngineConfig engine, EngineConfig opponent) {
+        this.engine = engine;
+        this.opponent = opponent;
+    }
+
+    /**
+     * Record a finished game between the two engines.
+     * @param game the game
+     * @param outcome its outcome
+     */
+    public void record(SelfPlayGame game, SelfPlayGame.Outcome outcome) {
+        if (outcome == SelfPlayGame.Outcome.DRAW) {
+            draws++;
+        } else if ((outcome == SelfPlayGame.Outcome.SENTE_WIN) == (game.getSente() == engine)) {
+            wins++;
+        } else {
+            losses++;
+        }
+    }
+
+    public EngineConfig getEngine() {
+        return engine;
+    }
+
+    public EngineConfig getOpponent() {
+        return opponent;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Get the score of the engine: wins plus half the draws, per game.
+     * @return score between 0 and 1, 0.5 before any game
+     */
+    public double getScore() {
+        int games = getGames();
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * Estimate the Elo difference of the engine over its opponent from the score.
+     * @return Elo difference, infinite when every game was won or lost
+     */
+    public double getElo() {
+        return elo(getScore());
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the Elo estimate, from the per-game score variance.
+     * @return error margin in Elo, infinite when the interval reaches a score of 0 or 1
+     */
+    public double getEloMargin() {
+        int games = getGames();
+        if (games < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = getScore();
+        double variance = (wins * square(1 - score) + draws * square(0.5 - score) + losses * square(score)) / games;
+        double deviation = 1.96 * Math.sqrt(variance / games);
+        return (elo(score + deviation) - elo(score - deviation)) / 2;
+    }
+
+    private static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
@@ -0,0 +1,177 @@
+package com.beanshogi.tournament;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.beanshogi.core.ai.ShogiAI;
+import com.beanshogi.core.board.Board;
+import com.beanshogi.core.board.MoveGenerator;
+import com.beanshogi.core.board.MoveHistory;
+import com.beanshogi.core.board.MoveList;
+import com.beanshogi.core.board.PackedMove;
+import com.beanshogi.core.game.Game;
+import com.beanshogi.core.game.Player;
+import com.beanshogi.core.game.PlayerType;
+import com.beanshogi.core.game.Sides;
+
+/**
+ * A single headless game between two engines, without GUI, sound or rendering.
+ * The game starts from the Game start position, optionally followed by a few random opening moves
+ * so that games between deterministic engines differ. Every side gets its own single-threaded AI,
+ * parallelism comes from running many games at once.
+ * @param sente engine playing Sente
+ * @param gote engine playing Gote
+ * @param openingPlies number of random opening moves
+ * @param openingSeed seed of the random opening, games sharing a seed start from the same position
+ * @param maxPlies game length after which the game is a draw
+ * @param history move line of the last played game, the board itself is dropped when the game ends
+ */
+public class SelfPlayGame {
+    /** Result of a finished game */
+    public enum Outcome {
+        SENTE_WIN,
+        GOTE_WIN,
+        DRAW
+    }
+
+    private final EngineConfig sente;
+    private final EngineConfig gote;
+    private final int openingPlies;
+    private final long openingSeed;
+    private final int maxPlies;
+    private int plies;
+    private MoveHistory history;
+
+    public SelfPlayGame(EngineConfig sente, EngineConfig gote, int openingPlies, long openingSeed, int maxPlies) {
+        this.sente = sente;
+        this.gote = gote;
+        this.openingPlies = openingPlies;
+        this.openingSeed = openingSeed;
+        this.maxPlies = maxPlies;
+    }
+
+    public EngineConfig getSente() {
+        return sente;
+    }
+
+    public EngineConfig getGote() {
+        return gote;
+    }
+
+    /**
+     * Get the number of plies played, including the opening moves.
+     * @return game length
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * Get the number of random opening moves.
+     * @return plies played before the engines take over
+     */
+    public int getOpeningPlies() {
+        return openingPlies;
+    }
+
+    /**
+     * Get the moves of the played game, starting from the start position.
+     * @return the move line, null before the game is played
+     */
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Play the game to the end.
+     * A side without a legal move loses, a fourfold repetition or reaching the ply limit is a draw.
+     * @return the outcome
+     */
+    public Outcome play() {
+        Game game = new Game(Arrays.asList(
+            new Player(Sides.SENTE, sente.getName(), PlayerType.AI, sente.getDifficulty()),
+            new Player(Sides.GOTE, gote.getName(), PlayerType.AI, gote.getDifficulty())));
+        plies = 0;
+        try {
+            return play(game);
+        } finally {
+            // The move manager starts a new history with the first move, so the line is taken at the end
+            history = game.getBoard().moveManager.getHistory();
+        }
+    }
+
+    private Outcome play(Game game) {
+        Board board = game.getBoard();
+
+        Outcome outcome = playOpening(game);
+        if (outcome != null) {
+            return outcome;
+        }
+
+        ShogiAI senteAI = createAI(board, sente);
+        ShogiAI goteAI = createAI(board, gote);
+        try {
+            while (plies < maxPlies) {
+                Sides side = game.getNextTurn();
+                EngineConfig engine = side == Sides.SENTE ? sente : gote;
+                ShogiAI ai = side == Sides.SENTE ? senteAI : goteAI;
+                int move = ai.getBestMove(side, engine.getDifficulty(), engine.getTimeControl());
+                if (move == PackedMove.NONE) {
+                    return winner(side.getOpposite());
+                }
+                outcome = applyMove(game, side, move);
+                if (outcome != null) {
+                    return outcome;
+                }
+            }
+            return Outcome.DRAW;
+        } finally {
+            senteAI.shutdown();
+            goteAI.shutdown();
+        }
+    }
+
+    private Outcome playOpening(Game game) {
+        Board board = game.getBoard();
+        Random random = new Random(openingSeed);
+        MoveGenerator generator = new MoveGenerator();
+        MoveList legal = new MoveList();
+        for (int i = 0; i < openingPlies; i++) {
+            Sides side = game.getNextTurn();
+            generator.generateLegal(board.getState(), legal);
+            if (legal.isEmpty()) {
+                return winner(side.getOpposite());
+            }
+            Outcome outcome = applyMove(game, side, legal.get(random.nextInt(legal.size())));
+            if (outcome != null) {
+                return outcome;
+            }
+        }
+        return null;
+    }
+
+    // Apply a move and report the outcome if it ended the game, null otherwise
+    private Outcome applyMove(Game game, Sides side, int move) {
+        Board board = game.getBoard();
+        board.moveManager.applyMove(board.unpackMove(side, move));
+        game.setNextTurn(side.getOpposite());
+        plies++;
+        if (board.evals.isCheckMate(side.getOpposite())) {
+            return winner(side);
+        }
+        if (board.isSennichite()) {
+            return Outcome.DRAW;
+        }
+        return null;
+    }
+
+    private static ShogiAI createAI(Board board, EngineConfig engine) {
+        ShogiAI ai = new ShogiAI(board, 1);
+        ai.setHashSizeMb(engine.getHashSizeMb());
+        return ai;
+    }
+
+    private static Outcome winner(Sides side) {
+        return side == Sides.SENTE ? Outcome.SENTE_WIN : Outcome.GOTE_WIN;
+    }
+}
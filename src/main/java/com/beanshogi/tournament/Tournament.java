@@ -0,0 +1,197 @@
+package com.beanshogi.tournament;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless round-robin self-play tournament between engine configurations.
+ * Every pairing plays the given number of games on a fixed thread pool, alternating colours:
+ * both games of a colour swap start from the same random opening, so neither engine profits from a lucky opening.
+ * Command line: tournament [games N] [threads N] [opening N] [plies N] [seed N] [out FILE] ENGINE ENGINE...
+ * where ENGINE is an EngineConfig spec, e.g. "tournament games 200 EASY NORMAL HARD".
+ * @param engines the participating engines
+ * @param gamesPerPairing games played between every two engines
+ * @param threads number of games running at once
+ * @param openingPlies random opening moves before the engines take over
+ * @param maxPlies game length after which a game is a draw
+ * @param seed seed of the random openings
+ */
+public class Tournament {
+    private final List<EngineConfig> engines;
+    private final int gamesPerPairing;
+    private final int threads;
+    private final int openingPlies;
+    private final int maxPlies;
+    private final long seed;
+    private final List<MatchStats> results = new ArrayList<>();
+    private long totalPlies;
+
+    public Tournament(List<EngineConfig> engines, int gamesPerPairing, int threads, int openingPlies, int maxPlies, long seed) {
+        if (engines.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two engines");
+        }
+        this.engines = List.copyOf(engines);
+        this.gamesPerPairing = gamesPerPairing;
+        this.threads = Math.max(1, threads);
+        this.openingPlies = openingPlies;
+        this.maxPlies = maxPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * Play every game of the tournament and block until all are done.
+     * @param progress stream for progress lines, null for none
+     * @return the records of every pairing, from the first engine's point of view
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public List<MatchStats> run(PrintStream progress) throws InterruptedException {
+        results.clear();
+        totalPlies = 0;
+        List<SelfPlayGame> games = new ArrayList<>();
+        List<MatchStats> statsOfGame = new ArrayList<>();
+        for (int a = 0; a < engines.size(); a++) {
+            for (int b = a + 1; b < engines.size(); b++) {
+                MatchStats stats = new MatchStats(engines.get(a), engines.get(b));
+                results.add(stats);
+                for (int i = 0; i < gamesPerPairing; i++) {
+                    long openingSeed = seed + i / 2;
+                    boolean swap = (i & 1) == 1;
+                    games.add(new SelfPlayGame(swap ? engines.get(b) : engines.get(a), swap ? engines.get(a) : engines.get(b),
+                        openingPlies, openingSeed, maxPlies));
+                    statsOfGame.add(stats);
+                }
+            }
+        }
+
+        AtomicInteger counter = new AtomicInteger(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "beanshogi-tournament-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletionService<Integer> completion = new ExecutorCompletionService<>(pool);
+            SelfPlayGame.Outcome[] outcomes = new SelfPlayGame.Outcome[games.size()];
+            for (int i = 0; i < games.size(); i++) {
+                int index = i;
+                completion.submit(() -> {
+                    outcomes[index] = games.get(index).play();
+                    return index;
+                });
+            }
+            // Results are collected on this thread only, the records need no locking
+            int reportEvery = Math.max(1, games.size() / 20);
+            for (int done = 1; done <= games.size(); done++) {
+                int index = completion.take().get();
+                SelfPlayGame game = games.get(index);
+                statsOfGame.get(index).record(game, outcomes[index]);
+                totalPlies += game.getPlies();
+                if (progress != null && (done % reportEvery == 0 || done == games.size())) {
+                    progress.println("Finished " + done + "/" + games.size() + " games");
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Write the win/draw/loss records and Elo estimates of the last run.
+     * @param out target stream
+     */
+    public void report(PrintStream out) {
+        int games = 0;
+        for (MatchStats stats : results) {
+            games += stats.getGames();
+        }
+        out.println("Tournament: " + engines.size() + " engines, " + games + " games, "
+            + (games == 0 ? 0 : totalPlies / games) + " plies per game");
+        out.println(String.format(Locale.ROOT, "%-20s %-20s %6s %6s %6s %7s %14s",
+            "Engine", "Opponent", "Wins", "Draws", "Losses", "Score", "Elo"));
+        for (MatchStats stats : results) {
+            out.println(String.format(Locale.ROOT, "%-20s %-20s %6d %6d %6d %6.1f%% %14s",
+                stats.getEngine(), stats.getOpponent(), stats.getWins(), stats.getDraws(), stats.getLosses(),
+                stats.getScore() * 100, formatElo(stats.getElo(), stats.getEloMargin())));
+        }
+    }
+
+    private static String formatElo(double elo, double margin) {
+        if (Double.isInfinite(elo)) {
+            return elo > 0 ? "+inf" : "-inf";
+        }
+        String value = String.format(Locale.ROOT, "%+.0f", elo);
+        return Double.isInfinite(margin) || Double.isNaN(margin)
+            ? value : value + String.format(Locale.ROOT, " +-%.0f", margin);
+    }
+
+    /**
+     * Command line entry.
+     * @param args options followed by at least two engine specs
+     * @throws InterruptedException if interrupted while waiting for the games
+     * @throws IOException if the report file can't be written
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int games = 100;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int opening = 4;
+        int plies = 256;
+        long seed = 1;
+        Path out = null;
+        List<EngineConfig> engines = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "opening":
+                    opening = Integer.parseInt(args[++i]);
+                    break;
+                case "plies":
+                    plies = Integer.parseInt(args[++i]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "out":
+                    out = Path.of(args[++i]);
+                    break;
+                default:
+                    engines.add(EngineConfig.parse(args[i]));
+            }
+        }
+        if (engines.size() < 2) {
+            System.out.println("Usage: tournament [games N] [threads N] [opening N] [plies N] [seed N] [out FILE] ENGINE ENGINE...");
+            System.out.println("ENGINE: EASY|NORMAL|HARD[:depth=N][:time=MS][:hash=MB]");
+            return;
+        }
+
+        Tournament tournament = new Tournament(engines, games, threads, opening, plies, seed);
+        long start = System.nanoTime();
+        tournament.run(System.err);
+        System.err.println("Done in " + (System.nanoTime() - start) / 1_000_000_000L + " s");
+        tournament.report(System.out);
+        if (out != null) {
+            try (PrintStream file = new PrintStream(Files.newOutputStream(out), false, StandardCharsets.UTF_8)) {
+                tournament.report(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.beanshogi.usi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+import com.beanshogi.core.ai.AIDifficulty;
+import com.beanshogi.core.ai.OpeningBook;
+import com.beanshogi.core.ai.ShogiAI;
+import com.beanshogi.core.ai.TimeControl;
+import com.beanshogi.core.board.BoardState;
+import com.beanshogi.core.board.MoveGenerator;
+import com.beanshogi.core.board.MoveList;
+import com.beanshogi.core.board.PackedMove;
+import com.beanshogi.core.board.Sfen;
+
+/**
+ * USI (Universal Shogi Interface) front end for ShogiAI, speaking the protocol over a pair of streams.
+ * Supported commands: usi, isready, setoption (Threads, USI_Hash, USI_OwnBook), usinewgame, position, go, stop, ponderhit,
+ * gameover and quit. The position is kept as a board core only, no piece objects are involved.
+ * Searches run at full strength on a background thread, so stop is answered while the search is running.
+ * The opening book (OpeningBook.getDefault()) is only used after "setoption name USI_OwnBook value true".
+ * @param in command input
+ * @param out response output, shared by the command and the search thread
+ * @param ai the search
+ * @param position the position set by the last valid position command
+ * @param pending the position being parsed, copied to position once the whole command is valid
+ * @param searchThread the running search, null when idle
+ * @param stopLatch released by stop, an infinite search waits for it before sending its best move
+ * @param searchUnbounded true while the running search only ends on stop (go infinite, ponder or no limit)
+ */
+public class UsiEngine {
+    private static final String NAME = "BeanShogi";
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final ShogiAI ai = new ShogiAI(ShogiAI.DEFAULT_THREADS);
+    private final BoardState position = new BoardState();
+    private final BoardState pending = new BoardState();
+    private final MoveGenerator generator = new MoveGenerator();
+    private final MoveList legalMoves = new MoveList();
+    private Thread searchThread;
+    private volatile boolean stopPending;
+    private CountDownLatch stopLatch = new CountDownLatch(0);
+    private boolean searchUnbounded;
+
+    public UsiEngine(InputStream in, PrintStream out) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.out = out;
+        Sfen.toState(Sfen.START, position);
+        ai.setListener(this::sendInfo);
+    }
+
+    /**
+     * Process commands until quit or the end of the input.
+     * @throws IOException if reading the input fails
+     */
+    public void run() throws IOException {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!handle(line.trim())) {
+                    break;
+                }
+            }
+        } finally {
+            stopSearch();
+            ai.shutdown();
+        }
+    }
+
+    /**
+     * Handle one command line.
+     * @param line the command
+     * @return false when the engine should quit
+     */
+    boolean handle(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "usi":
+                send("id name " + NAME);
+                send("id author " + NAME + " developers");
+                send("option name Threads type spin default " + ai.getThreads() + " min 1 max 256");
+                send("option name USI_Hash type spin default " + AIDifficulty.HARD.getHashSizeMb() + " min 1 max 4096");
+                send("option name USI_OwnBook type check default false");
+                send("usiok");
+                break;
+            case "isready":
+                // Answered at once, also while searching
+                send("readyok");
+                break;
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "usinewgame":
+                finishSearch();
+                if (ai.getTranspositionTable() != null) {
+                    ai.getTranspositionTable().clear();
+                }
+                break;
+            case "position":
+                finishSearch();
+                setPosition(tokens);
+                break;
+            case "go":
+                startSearch(tokens);
+                break;
+            case "stop":
+            case "gameover":
+                stopSearch();
+                break;
+            case "ponderhit":
+                // Pondering is not supported, a ponder search simply runs until stop
+                break;
+            case "quit":
+                return false;
+            default:
+                if (!tokens[0].isEmpty()) {
+                    send("info string unknown command " + tokens[0]);
+                }
+        }
+        return true;
+    }
+
+    // setoption name <id> value <x>
+    private void setOption(String[] tokens) {
+        if (tokens.length < 5 || !tokens[1].equals("name") || !tokens[3].equals("value")) {
+            send("info string malformed setoption");
+            return;
+        }
+        finishSearch();
+        if (tokens[2].equals("USI_OwnBook")) {
+            ai.setOpeningBook(tokens[4].equals("true") ? OpeningBook.getDefault() : null);
+            return;
+        }
+        try {
+            int value = Integer.parseInt(tokens[4]);
+            if (tokens[2].equals("Threads")) {
+                ai.setThreads(value);
+            } else if (tokens[2].equals("USI_Hash")) {
+                ai.setHashSizeMb(value);
+            }
+        } catch (NumberFormatException e) {
+            send("info string invalid value for " + tokens[2]);
+        }
+    }
+
+    // position [startpos | sfen <board> <side> <hands> <move number>] [moves <move>...]
+    // A malformed command or an illegal move leaves the previous position in place
+    private void setPosition(String[] tokens) {
+        int i = 1;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("startpos")) {
+                Sfen.toState(Sfen.START, pending);
+                i = 2;
+            } else if (tokens.length > 1 && tokens[1].equals("sfen")) {
+                StringBuilder sfen = new StringBuilder();
+                for (i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                    sfen.append(tokens[i]).append(' ');
+                }
+                Sfen.toState(sfen, pending);
+            } else {
+                send("info string position needs startpos or sfen");
+                return;
+            }
+            if (i < tokens.length && tokens[i].equals("moves")) {
+                for (i++; i < tokens.length; i++) {
+                    if (!playMove(tokens[i])) {
+                        send("info string illegal move " + tokens[i]);
+                        return;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            send("info string invalid position: " + e.getMessage());
+            return;
+        }
+        position.copyFrom(pending);
+    }
+
+    private boolean playMove(String usi) {
+        int move;
+        try {
+            move = Sfen.parseMove(usi, pending);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        generator.generateLegal(pending, legalMoves);
+        for (int i = 0; i < legalMoves.size(); i++) {
+            if (legalMoves.get(i) == move) {
+                pending.makeMove(move);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // go [btime x] [wtime x] [binc x] [winc x] [byoyomi x] [movetime x] [depth x] [nodes x] [infinite] [ponder]
+    private void startSearch(String[] tokens) {
+        finishSearch();
+        long[] clock = new long[2];
+        long[] increment = new long[2];
+        long byoyomi = 0;
+        long moveTime = 0;
+        int depth = TimeControl.MAX_DEPTH;
+        long nodes = 0;
+        boolean clockGiven = false;
+        boolean infinite = false;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "btime":
+                        clock[0] = Long.parseLong(tokens[++i]);
+                        clockGiven = true;
+                        break;
+                    case "wtime":
+                        clock[1] = Long.parseLong(tokens[++i]);
+                        clockGiven = true;
+                        break;
+                    case "binc":
+                        increment[0] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "winc":
+                        increment[1] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "byoyomi":
+                        byoyomi = Long.parseLong(tokens[++i]);
+                        clockGiven = true;
+                        break;
+                    case "movetime":
+                        moveTime = Long.parseLong(tokens[++i]);
+                        break;
+                    case "depth":
+                        depth = Integer.parseInt(tokens[++i]);
+                        break;
+                    case "nodes":
+                        nodes = Long.parseLong(tokens[++i]);
+                        break;
+                    case "infinite":
+                    case "ponder":
+                        infinite = true;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (RuntimeException e) {
+            send("info string malformed go command");
+            return;
+        }
+        if (moveTime == 0 && clockGiven && !infinite) {
+            int side = position.getSideToMove();
+            moveTime = TimeControl.fromClock(clock[side], increment[side], byoyomi).getMoveTimeMillis();
+        }
+        TimeControl timeControl = new TimeControl(infinite ? 0 : moveTime, depth, infinite ? 0 : nodes);
+
+        BoardState root = new BoardState();
+        root.copyFrom(position);
+        boolean waitForStop = infinite;
+        searchUnbounded = infinite || (timeControl.getMoveTimeMillis() == 0 && timeControl.getMaxNodes() == 0
+            && depth >= TimeControl.MAX_DEPTH);
+        stopPending = false;
+        CountDownLatch latch = new CountDownLatch(1);
+        stopLatch = latch;
+        searchThread = new Thread(() -> {
+            int move = ai.getBestMove(root, AIDifficulty.HARD, timeControl);
+            // An infinite search must not answer before it is told to stop
+            if (waitForStop) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            send("bestmove " + (move == PackedMove.NONE ? "resign" : Sfen.formatMove(move)));
+        }, "beanshogi-usi-search");
+        searchThread.setDaemon(true);
+        searchThread.start();
+    }
+
+    private void stopSearch() {
+        stopPending = true;
+        stopLatch.countDown();
+        ai.requestStop();
+        waitForSearch();
+    }
+
+    /**
+     * Make sure no search is running before the position or settings change.
+     * A search with a limit is waited for, one that only ends on stop is stopped: a GUI that skips stop must
+     * not leave the command reader blocked forever.
+     */
+    private void finishSearch() {
+        if (searchUnbounded) {
+            stopSearch();
+        } else {
+            waitForSearch();
+        }
+    }
+
+    private void waitForSearch() {
+        Thread thread = searchThread;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+        searchUnbounded = false;
+    }
+
+    private void sendInfo(int depth, int score, long nodes, long elapsedNanos, int[] pv) {
+        // A stop that arrived before the search started is only seen here, after the first iteration
+        if (stopPending) {
+            ai.requestStop();
+        }
+        long millis = elapsedNanos / 1_000_000L;
+        long nps = elapsedNanos > 0 ? nodes * 1_000_000_000L / elapsedNanos : 0;
+        int mate = ShogiAI.matePlies(score);
+        StringBuilder sb = new StringBuilder("info depth ").append(depth)
+            .append(mate != 0 ? " score mate " : " score cp ").append(mate != 0 ? mate : score)
+            .append(" nodes ").append(nodes)
+            .append(" nps ").append(nps)
+            .append(" time ").append(millis);
+        if (pv.length > 0) {
+            sb.append(" pv");
+            for (int move : pv) {
+                sb.append(' ').append(Sfen.formatMove(move));
+            }
+        }
+        send(sb.toString());
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+}
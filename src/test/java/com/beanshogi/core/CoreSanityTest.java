@@ -1,10 +1,34 @@
 package com.beanshogi.core;
 
+import com.beanshogi.core.ai.AIDifficulty;
+import com.beanshogi.core.ai.OpeningBook;
+import com.beanshogi.core.ai.OpeningBookBuilder;
+import com.beanshogi.core.ai.ShogiAI;
+import com.beanshogi.core.ai.TimeControl;
+import com.beanshogi.core.ai.TranspositionTable;
 import com.beanshogi.core.board.*;
 import com.beanshogi.core.game.*;
 import com.beanshogi.core.pieces.*;
 import com.beanshogi.core.util.*;
+import com.beanshogi.io.GameSaveLoad;
+import com.beanshogi.tournament.BookGenerator;
+import com.beanshogi.tournament.EngineConfig;
+import com.beanshogi.tournament.MatchStats;
+import com.beanshogi.tournament.Tournament;
+import com.beanshogi.usi.UsiEngine;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class CoreSanityTest {
@@ -53,4 +77,213 @@ public class CoreSanityTest {
         board.removePiece(pos);
         assertNull(board.getPiece(pos));
     }
+
+    @Test
+    void testTranspositionTableRoundTrip() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(1, Integer.bitCount(table.capacity()));
+        long key = 0x123456789ABCDEFL;
+        int move = PackedMove.boardMove(60, 51, 0, true, 3);
+        assertEquals(0L, table.probe(key));
+        table.store(key, move, 5, TranspositionTable.BOUND_LOWER, -1234);
+        long entry = table.probe(key);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+        assertEquals(-1234, TranspositionTable.score(entry));
+        assertEquals(1, table.getHits());
+        assertEquals(1, table.getMisses());
+    }
+
+    @Test
+    void testTournamentRecordsEveryGame() throws InterruptedException {
+        EngineConfig easy = EngineConfig.parse("EASY:depth=1:hash=1");
+        EngineConfig normal = EngineConfig.parse("normal:depth=1:hash=1");
+        assertEquals(AIDifficulty.NORMAL, normal.getDifficulty());
+        assertEquals(1, normal.getTimeControl().getMaxDepth());
+
+        Tournament tournament = new Tournament(Arrays.asList(easy, normal), 4, 2, 2, 12, 7);
+        List<MatchStats> results = tournament.run(null);
+        assertEquals(1, results.size());
+        MatchStats stats = results.get(0);
+        assertEquals(4, stats.getGames());
+        assertEquals(stats.getWins() + 0.5 * stats.getDraws(), stats.getScore() * 4, 1e-9);
+        assertEquals(0.0, new MatchStats(easy, normal).getElo(), 1e-9);
+    }
+
+    @Test
+    void testUsiSession() throws IOException {
+        String commands = String.join("\n",
+            "usi", "setoption name Threads value 1", "isready",
+            "position startpos moves 7g7f 3c3d", "go depth 2",
+            "position sfen 8k/9/8P/9/9/9/9/9/K8 b G 1", "go nodes 1000", "quit");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new UsiEngine(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)),
+            new PrintStream(output, true, StandardCharsets.UTF_8)).run();
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\\R");
+        List<String> responses = Arrays.asList(lines);
+        assertTrue(responses.contains("usiok"));
+        assertTrue(responses.contains("readyok"));
+        assertTrue(responses.stream().anyMatch(line -> line.startsWith("info depth 2 ") && line.contains(" pv ")));
+        // The gold drop in front of the king mates
+        assertEquals("bestmove G*1b", lines[lines.length - 1]);
+
+        BoardState state = new BoardState();
+        Sfen.toState(Sfen.START, state);
+        assertEquals("7g7f", Sfen.formatMove(Sfen.parseMove("7g7f", state)));
+        assertEquals(PackedMove.drop(PieceType.GOLD.ordinal(), Bitboard.square(8, 1)), Sfen.parseMove("G*1b", state));
+    }
+
+    @Test
+    void testUsiSessionWithoutStop() {
+        // isready and position arrive while an infinite search runs, the engine must neither stall nor lose a reply
+        String commands = String.join("\n",
+            "usi", "setoption name Threads value 1", "position startpos", "go infinite", "isready",
+            "position startpos moves 7g7f", "go depth 1", "isready", "quit");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+            new UsiEngine(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(output, true, StandardCharsets.UTF_8)).run());
+        List<String> responses = Arrays.asList(output.toString(StandardCharsets.UTF_8).split("\\R"));
+        assertEquals(2, responses.stream().filter(line -> line.equals("readyok")).count());
+        assertEquals(2, responses.stream().filter(line -> line.startsWith("bestmove ")).count());
+    }
+
+    @Test
+    void testUsiSessionWithBadPosition() {
+        // Malformed position commands are reported and leave the last valid position in place
+        String commands = String.join("\n",
+            "usi", "setoption name Threads value 1", "position sfen 8k/9/8P/9/9/9/9/9/K8 b G 1",
+            "position sfen 4k4/9/9/9/9/9/9/9/4K4 b 20g 1", "isready",
+            "position startpos moves 7g7f 7g7f", "position sfen 9/9/9 b - 1", "go nodes 1000", "quit");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+            new UsiEngine(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(output, true, StandardCharsets.UTF_8)).run());
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\\R");
+        List<String> responses = Arrays.asList(lines);
+        assertTrue(responses.contains("readyok"));
+        assertTrue(responses.contains("info string illegal move 7g7f"));
+        assertEquals(2, responses.stream().filter(line -> line.startsWith("info string invalid position")).count());
+        assertEquals("bestmove G*1b", lines[lines.length - 1]);
+    }
+
+    @Test
+    void testBinarySaveRoundTrip(@TempDir Path dir) throws IOException {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.HUMAN);
+        Player gote = new Player(Sides.GOTE, "G\u00f6te", PlayerType.AI, AIDifficulty.HARD);
+        String sfen = "l6nl/5+P1gk/2np1S3/p1p4Pp/3P2Sp1/1PPb2P1P/P5GS1/R8/LN4bKL w RGgsn5p 42";
+        Game game = new Game(Arrays.asList(sente, gote), sfen);
+        Position from = new Position(7, 1);
+        game.getBoard().moveManager.applyMove(new Move(gote, from, new Position(6, 1), game.getBoard().getPiece(from), null, false, false));
+        game.setNextTurn(Sides.SENTE);
+        Position pawn = new Position(7, 3);
+        game.getBoard().moveManager.applyMove(new Move(sente, pawn, new Position(7, 2), game.getBoard().getPiece(pawn), null, false, false));
+        game.getBoard().moveManager.undoMove();
+
+        Path file = dir.resolve("game" + GameSaveLoad.EXTENSION);
+        GameSaveLoad.save(game, file);
+        assertTrue(Files.size(file) < 200);
+
+        Game loaded = GameSaveLoad.load(file.toString());
+        assertEquals(game.toSfen(), loaded.toSfen());
+        assertEquals(Sides.SENTE, loaded.getNextTurn());
+        assertEquals(game.getBoard().getState().getKey(), loaded.getBoard().getState().getKey());
+        Player loadedGote = loaded.getBoard().getPlayer(Sides.GOTE);
+        assertEquals("G\u00f6te", loadedGote.getName());
+        assertEquals(PlayerType.AI, loadedGote.getType());
+        assertEquals(AIDifficulty.HARD, loadedGote.getDifficulty());
+
+        // The whole line comes back: the played move can be undone and the undone one redone
+        assertEquals(1, loaded.getBoard().moveManager.getUndoStack().size());
+        assertEquals(1, loaded.getBoard().moveManager.getRedoStack().size());
+        loaded.getBoard().moveManager.undoMove();
+        assertEquals(sfen, loaded.toSfen());
+        loaded.getBoard().moveManager.redoMove();
+        loaded.getBoard().moveManager.redoMove();
+        assertEquals(PieceType.PAWN, loaded.getBoard().getPiece(new Position(7, 2)).getType());
+
+        // A drop of a piece Gote doesn't hold, or a move of Sente's piece by Gote, is a damaged line
+        BoardState start = new BoardState();
+        Sfen.toState(sfen, start);
+        int badDrop = MoveHistory.encode(Sides.GOTE.ordinal(), PackedMove.drop(PieceType.ROOK.ordinal(), Bitboard.square(4, 0)));
+        assertThrows(IllegalArgumentException.class, () -> MoveHistory.decode(badDrop, start));
+        int foreignMove = MoveHistory.encode(Sides.GOTE.ordinal(),
+            PackedMove.boardMove(Bitboard.square(7, 3), Bitboard.square(7, 2), 0, false, -1));
+        assertThrows(IllegalArgumentException.class, () -> MoveHistory.decode(foreignMove, start));
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] saved = bytes.clone();
+        bytes[bytes.length - 4] = (byte) (badDrop >>> 8);
+        bytes[bytes.length - 3] = (byte) badDrop;
+        Files.write(file, bytes);
+        RuntimeException damaged = assertThrows(RuntimeException.class, () -> GameSaveLoad.load(file.toString()));
+        assertTrue(damaged.getCause().getMessage().contains("Invalid drop"));
+
+        // Gote's pawns in hand, counted back from the end: two moves, three ints, the side byte, then Gote's hand
+        saved[saved.length - 2 * 2 - 3 * 4 - 1 - PieceType.HAND_COUNT] = 19;
+        Files.write(file, saved);
+        damaged = assertThrows(RuntimeException.class, () -> GameSaveLoad.load(file.toString()));
+        assertTrue(damaged.getCause().getMessage().contains("Invalid hand count 19"));
+
+        Files.write(file, new byte[] {'B', 'S', 'H', 'G', 1, 0, 2});
+        assertThrows(RuntimeException.class, () -> GameSaveLoad.load(file.toString()));
+    }
+
+    @Test
+    void testOpeningBook(@TempDir Path dir) throws IOException {
+        Path games = dir.resolve("games.usi");
+        Files.writeString(games, "# Collection\n"
+            + "startpos moves 7g7f 3c3d\n"
+            + "position startpos moves 7g7f 8c8d\n"
+            + "\n"
+            + "startpos moves 2g2f\n");
+        OpeningBookBuilder builder = new OpeningBookBuilder(16);
+        assertEquals(3, BookGenerator.importGames(builder, games));
+        Path file = dir.resolve("openings.bsb");
+        builder.write(file);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(4, book.size());
+        BoardState start = new BoardState();
+        Sfen.toState(Sfen.START, start);
+
+        MoveList moves = new MoveList();
+        assertEquals(2, book.getMoves(start.getKey(), moves));
+        assertEquals("7g7f", Sfen.formatMove(moves.get(0)));
+        assertEquals(2, moves.getScore(0));
+        assertEquals("2g2f", Sfen.formatMove(moves.get(1)));
+        assertEquals(1, moves.getScore(1));
+        assertEquals("7g7f", Sfen.formatMove(book.pick(start.getKey(), null)));
+        start.makeMove(moves.get(0));
+        assertEquals(2, book.getMoves(start.getKey(), moves));
+        assertEquals(PackedMove.NONE, book.pick(start.getKey() ^ 1, new Random(1)));
+
+        // A fresh AI has no book and searches, whatever book files lie around
+        ShogiAI ai = new ShogiAI(1);
+        try {
+            Sfen.toState(Sfen.START, start);
+            assertNull(ai.getOpeningBook());
+            assertNotEquals(PackedMove.NONE, ai.getBestMove(start, AIDifficulty.HARD, TimeControl.fixedDepth(2)));
+            assertFalse(ai.isBookMove());
+            assertTrue(ai.getNodesSearched() > 0);
+            assertEquals(2, ai.getCompletedDepth());
+
+            // With a book it answers book positions without searching and searches once the book runs out
+            ai.setOpeningBook(book, null);
+            assertEquals("7g7f", Sfen.formatMove(ai.getBestMove(start, AIDifficulty.HARD, TimeControl.fixedDepth(2))));
+            assertTrue(ai.isBookMove());
+            assertEquals(0, ai.getNodesSearched());
+            ai.setOpeningBook(book);
+            String move = Sfen.formatMove(ai.getBestMove(start, AIDifficulty.HARD, TimeControl.fixedDepth(2)));
+            assertTrue(move.equals("7g7f") || move.equals("2g2f"));
+
+            BoardState outOfBook = new BoardState();
+            Sfen.toState("lnsgkgsnl/1r5b1/ppppppppp/9/9/P8/1PPPPPPPP/1B5R1/LNSGKGSNL w - 2", outOfBook);
+            assertNotEquals(PackedMove.NONE, ai.getBestMove(outOfBook, AIDifficulty.HARD, TimeControl.fixedDepth(2)));
+            assertFalse(ai.isBookMove());
+            assertTrue(ai.getNodesSearched() > 0);
+        } finally {
+            ai.shutdown();
+        }
+    }
 }
@@ -1,10 +1,15 @@
 package com.beanshogi.core;
 
+import com.beanshogi.core.ai.AIDifficulty;
+import com.beanshogi.core.ai.ShogiAI;
+import com.beanshogi.core.ai.TimeControl;
+import com.beanshogi.core.ai.TranspositionTable;
 import com.beanshogi.core.board.*;
 import com.beanshogi.core.game.*;
 import com.beanshogi.core.pieces.*;
 import com.beanshogi.core.pieces.normal.*;
 import com.beanshogi.core.pieces.normal.slider.Rook;
+import com.beanshogi.core.pieces.promoted.PromotedPawn;
 import com.beanshogi.core.pieces.promoted.slider.PromotedRook;
 import com.beanshogi.core.pieces.normal.slider.Bishop;
 import com.beanshogi.core.util.*;
@@ -53,6 +58,12 @@ public class GameLogicTest {
         Piece promoted = pawn.promote();
         assertNotEquals(pawn, promoted);
         assertTrue(((Promotable)promoted).isPromoted());
+        assertEquals(PieceType.PROMOTED_PAWN, promoted.getType());
+        assertEquals(pos, promoted.getBoardPosition());
+        assertEquals(PieceType.PAWN, promoted.demote().getType());
+        assertTrue(pawn.canPromote());
+        assertFalse(promoted.canPromote());
+        assertFalse(new GoldGeneral(Sides.SENTE, pos, null, board).canPromote());
     }
 
     @Test
@@ -98,6 +109,52 @@ public class GameLogicTest {
         assertFalse(moves.contains(new Position(4,3))); // Not L-shape
     }
 
+    @Test
+    void testQueriesLeaveLiveStateUntouched() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.HUMAN);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.HUMAN);
+        Board board = new Board(Arrays.asList(sente, gote));
+        board.loadSfen(Sfen.START);
+        BoardState state = board.getState();
+        long key = state.getKey();
+        // Queries about the side not to move run on a scratch copy of the core
+        Piece gotePawn = board.getPiece(new Position(0, 2));
+        assertEquals(Collections.singletonList(new Position(0, 3)), board.evals.getFilteredLegalMoves(gotePawn));
+        assertFalse(board.evals.isCheckMate(Sides.GOTE));
+        assertTrue(board.evals.isMoveLegal(gotePawn, new Position(0, 2), new Position(0, 3), false));
+        assertEquals(0, state.getSideToMove());
+        assertEquals(key, state.getKey());
+    }
+
+    @Test
+    void testIncrementalPieceSquareScore() {
+        BoardState state = new BoardState();
+        Sfen.toState("l6nl/5+P1gk/2np1S3/p1p4Pp/3P2Sp1/1PPb2P1P/P5GS1/R8/LN4bKL w RGgsn5p 1", state);
+        int before = state.pieceSquareScore(0);
+        assertEquals(scratchPieceSquareScore(state, 0), before);
+
+        MoveList moves = new MoveList();
+        new MoveGenerator().generateLegal(state, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            state.makeMove(moves.get(i));
+            assertEquals(scratchPieceSquareScore(state, 0), state.pieceSquareScore(0));
+            assertEquals(scratchPieceSquareScore(state, 1), state.pieceSquareScore(1));
+            state.unmakeMove(moves.get(i));
+        }
+        assertEquals(before, state.pieceSquareScore(0));
+    }
+
+    private static int scratchPieceSquareScore(BoardState state, int view) {
+        int sum = 0;
+        for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+            int code = state.pieceAt(sq);
+            if (code != BoardState.EMPTY) {
+                sum += PieceSquareScores.score(view, BoardState.sideOf(code), BoardState.typeOf(code), sq);
+            }
+        }
+        return sum;
+    }
+
     @Test
     void testBoardOperations() {
         Player sente = new Player(Sides.SENTE, "Sente", PlayerType.HUMAN);
@@ -121,6 +178,25 @@ public class GameLogicTest {
         assertTrue(hand.getAllPieces().contains(pawn));
         hand.removePiece(pawn);
         assertFalse(hand.getAllPieces().contains(pawn));
+
+        // Counts per type, more pieces than grid cells share the cells of their type
+        for (int i = 0; i < 18; i++) {
+            hand.addPiece(new Pawn(Sides.SENTE, null, null, board));
+        }
+        for (int i = 0; i < 4; i++) {
+            hand.addPiece(new GoldGeneral(Sides.SENTE, null, null, board));
+        }
+        Rook rook = new Rook(Sides.SENTE, null, null, board);
+        hand.addPiece(rook);
+        assertEquals(23, hand.size());
+        assertEquals(18, hand.count(PieceType.PAWN.ordinal()));
+        assertEquals(18, board.getState().handCount(0, PieceType.PAWN.ordinal()));
+        assertEquals(new Position(0, 0), rook.getHandPosition());
+        assertSame(rook, hand.getPieceAt(new Position(0, 0)));
+        assertTrue(hand.getPieceAt(new Position(4, 3)) instanceof Pawn);
+        assertTrue(hand.removePiece(rook));
+        assertEquals(0, board.getState().handCount(0, PieceType.ROOK.ordinal()));
+        assertTrue(hand.getPieceAt(new Position(0, 0)) instanceof GoldGeneral);
     }
 
     @Test
@@ -306,4 +382,258 @@ public class GameLogicTest {
         // Legal drop positions should not include the illegal pawn drop
         assertFalse(board.getPieceDropPoints(Pawn.class, Sides.SENTE).contains(pawnDropTarget));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBoardStateFollowsMoves() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.HUMAN);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.HUMAN);
+        Board board = new Game(Arrays.asList(sente, gote)).getBoard();
+        BoardState state = board.getState();
+        assertEquals(40, state.pieceCount());
+        assertEquals(Bitboard.square(4, 8), state.kingSquare(Sides.SENTE.ordinal()));
+        assertTrue(state.hasPawnOnFile(Sides.SENTE.ordinal(), 2));
+
+        // Open the bishop diagonals and trade bishops
+        Position sentePawn = new Position(2, 6);
+        board.moveManager.applyMove(new Move(sente, sentePawn, new Position(2, 5), board.getPiece(sentePawn), null, false, false));
+        Position gotePawn = new Position(6, 2);
+        board.moveManager.applyMove(new Move(gote, gotePawn, new Position(6, 3), board.getPiece(gotePawn), null, false, false));
+        Position bishop = new Position(1, 7);
+        board.moveManager.applyMove(new Move(sente, bishop, new Position(7, 1), board.getPiece(bishop), null, false, false));
+
+        assertEquals(39, state.pieceCount());
+        assertTrue(state.isEmpty(Bitboard.square(1, 7)));
+        assertEquals(1, state.handCount(Sides.SENTE.ordinal(), PieceType.BISHOP.ordinal()));
+        assertEquals(20, board.getPiecesOfSide(Sides.SENTE).size());
+
+        board.moveManager.undoMove();
+        assertEquals(40, state.pieceCount());
+        assertTrue(state.isHandEmpty(Sides.SENTE.ordinal()));
+        assertEquals(BoardState.code(Sides.GOTE.ordinal(), PieceType.BISHOP.ordinal()), state.pieceAt(Bitboard.square(7, 1)));
+    }
+
+    @Test
+    void testZobristKeyAndRepetition() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.HUMAN);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.HUMAN);
+        Board board = new Game(Arrays.asList(sente, gote)).getBoard();
+        MoveManager moves = board.moveManager;
+        long startKey = moves.getZobristKey();
+
+        // Shuffle both rooks back and forth - the start position comes back after every 4 moves
+        Position senteFrom = new Position(7, 7);
+        Position senteTo = new Position(8, 7);
+        Position goteFrom = new Position(1, 1);
+        Position goteTo = new Position(0, 1);
+        for (int cycle = 0; cycle < 3; cycle++) {
+            assertFalse(board.isSennichite());
+            moves.applyMove(new Move(sente, senteFrom, senteTo, board.getPiece(senteFrom), null, false, false));
+            assertNotEquals(startKey, moves.getZobristKey());
+            moves.applyMove(new Move(gote, goteFrom, goteTo, board.getPiece(goteFrom), null, false, false));
+            moves.applyMove(new Move(sente, senteTo, senteFrom, board.getPiece(senteTo), null, false, false));
+            moves.applyMove(new Move(gote, goteTo, goteFrom, board.getPiece(goteTo), null, false, false));
+            assertEquals(startKey, moves.getZobristKey());
+        }
+        assertEquals(4, moves.getRepetitionCount());
+        assertTrue(board.isSennichite());
+
+        // Undo and redo keep the key and the repetition count in step
+        moves.undoMove();
+        long keyAfterUndo = moves.getZobristKey();
+        assertNotEquals(startKey, keyAfterUndo);
+        assertFalse(board.isSennichite());
+        moves.redoMove();
+        assertEquals(startKey, moves.getZobristKey());
+        assertTrue(board.isSennichite());
+
+        // The incremental key matches a key computed from scratch
+        board.rebuildState();
+        assertEquals(startKey, board.getState().getKey());
+    }
+
+    @Test
+    void testIterativeDeepeningSearch() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.AI);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.AI);
+        Board board = new Game(Arrays.asList(sente, gote)).getBoard();
+        ShogiAI ai = new ShogiAI(board);
+
+        int move = ai.getBestMove(Sides.SENTE, TimeControl.fixedDepth(3));
+        assertNotEquals(PackedMove.NONE, move);
+        assertEquals(3, ai.getCompletedDepth());
+        int[] pv = ai.getPrincipalVariation();
+        assertTrue(pv.length >= 1);
+        assertEquals(move, pv[0]);
+
+        // A time budget still yields a move from the completed iterations
+        assertNotEquals(PackedMove.NONE, ai.getBestMove(Sides.SENTE, TimeControl.moveTime(200)));
+        assertTrue(ai.getCompletedDepth() >= 1);
+        // The search must leave the live board untouched
+        assertEquals(40, board.getState().pieceCount());
+    }
+
+    @Test
+    void testQuiescenceSeesRecapture() {
+        // The pawn on 5e is guarded by the gold, taking it with the rook loses the rook at the horizon
+        BoardState position = new BoardState();
+        Sfen.toState("4k4/9/9/4g4/4p4/9/9/4R4/K8 b - 1", position);
+        ShogiAI ai = new ShogiAI(1);
+        try {
+            int move = ai.getBestMove(position, AIDifficulty.HARD, TimeControl.fixedDepth(1));
+            assertNotEquals(PackedMove.NONE, move);
+            assertNotEquals("5h5e", Sfen.formatMove(move));
+        } finally {
+            ai.shutdown();
+        }
+    }
+
+    @Test
+    void testPrunedSearchKeepsMate() {
+        // Null moves and reductions must not hide the gold drop mate on 5b behind a deeper search
+        BoardState position = new BoardState();
+        Sfen.toState("4k4/9/4G4/9/9/9/9/9/K8 b G 1", position);
+        ShogiAI ai = new ShogiAI(1);
+        try {
+            int move = ai.getBestMove(position, AIDifficulty.HARD, TimeControl.fixedDepth(5));
+            assertEquals("G*5b", Sfen.formatMove(move));
+        } finally {
+            ai.shutdown();
+        }
+    }
+
+    @Test
+    void testTranspositionTablePerDifficulty() {
+        // An AI playing both sides at different levels keeps one table each instead of reallocating every move
+        BoardState position = new BoardState();
+        Sfen.toState(Sfen.START, position);
+        ShogiAI ai = new ShogiAI(1);
+        try {
+            ai.getBestMove(position, AIDifficulty.EASY, TimeControl.fixedDepth(1));
+            TranspositionTable easy = ai.getTranspositionTable();
+            ai.getBestMove(position, AIDifficulty.NORMAL, TimeControl.fixedDepth(1));
+            TranspositionTable normal = ai.getTranspositionTable();
+            assertNotSame(easy, normal);
+            ai.getBestMove(position, AIDifficulty.EASY, TimeControl.fixedDepth(1));
+            assertSame(easy, ai.getTranspositionTable());
+            ai.getBestMove(position, AIDifficulty.NORMAL, TimeControl.fixedDepth(1));
+            assertSame(normal, ai.getTranspositionTable());
+        } finally {
+            ai.shutdown();
+        }
+    }
+
+    @Test
+    void testAttackMapsFollowBoard() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.HUMAN);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.HUMAN);
+        Board board = new Board(Arrays.asList(sente, gote));
+        board.setPiece(new Position(4, 8), new King(Sides.SENTE, null, null, board));
+        board.setPiece(new Position(0, 0), new King(Sides.GOTE, null, null, board));
+        Position rookPos = new Position(4, 0);
+        board.setPiece(rookPos, new Rook(Sides.GOTE, rookPos, null, board));
+        BoardState state = board.getState();
+
+        // The rook ray runs down the whole file to the king
+        assertEquals(1, state.attackCount(Sides.GOTE.ordinal(), Bitboard.square(4, 5)));
+        assertTrue(board.evals.isKingInCheck(Sides.SENTE));
+        assertEquals(1, board.evals.kingChecks(Sides.SENTE).size());
+
+        // Blocking the file cuts the ray behind the blocker
+        Position blockPos = new Position(4, 4);
+        Pawn blocker = new Pawn(Sides.SENTE, blockPos, null, board);
+        board.setPiece(blockPos, blocker);
+        assertEquals(1, state.attackCount(Sides.GOTE.ordinal(), Bitboard.square(4, 4)));
+        assertEquals(0, state.attackCount(Sides.GOTE.ordinal(), Bitboard.square(4, 5)));
+        assertFalse(board.evals.isKingInCheck(Sides.SENTE));
+        assertTrue(board.evals.kingChecks(Sides.SENTE).isEmpty());
+
+        // Removing the blocker opens the ray again
+        board.removePiece(blockPos);
+        assertTrue(board.evals.isKingInCheck(Sides.SENTE));
+    }
+
+    @Test
+    void testSfenRoundTrip() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.HUMAN);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.HUMAN);
+        Game game = new Game(Arrays.asList(sente, gote));
+        assertEquals("lngsksgnl/1r5b1/ppppppppp/9/9/9/PPPPPPPPP/1B5R1/LNGSKSGNL b - 1", game.toSfen());
+
+        Position pawnPos = new Position(2, 6);
+        game.getBoard().moveManager.applyMove(new Move(sente, pawnPos, new Position(2, 5), game.getBoard().getPiece(pawnPos), null, false, false));
+        assertEquals("lngsksgnl/1r5b1/ppppppppp/9/9/2P6/PP1PPPPPP/1B5R1/LNGSKSGNL w - 2", game.toSfen());
+
+        // Promoted pieces, hands and the move number survive a load
+        String sfen = "l6nl/5+P1gk/2np1S3/p1p4Pp/3P2Sp1/1PPb2P1P/P5GS1/R8/LN4bKL w RGgsn5p 42";
+        Game loaded = new Game(Arrays.asList(sente, gote), sfen);
+        assertEquals(sfen, loaded.toSfen());
+        assertEquals(Sides.GOTE, loaded.getNextTurn());
+        assertEquals(5, gote.getHandGrid().getAllPieces().stream().filter(p -> p instanceof Pawn).count());
+        assertTrue(loaded.getBoard().getPiece(new Position(5, 1)) instanceof PromotedPawn);
+        BoardState parsed = new BoardState();
+        assertEquals(42, Sfen.toState(sfen, parsed));
+        assertEquals(parsed.getKey(), loaded.getBoard().getState().getKey());
+
+        assertThrows(IllegalArgumentException.class, () -> loaded.getBoard().loadSfen("9/9/9 b - 1"));
+        assertEquals(sfen, loaded.toSfen(), "An invalid SFEN must leave the board untouched");
+    }
+
+    @Test
+    void testSfenHandCounts() {
+        BoardState state = new BoardState();
+        Sfen.toState("4k4/9/9/9/9/9/9/9/4K4 b 2R2B4G4S4N4L18P 1", state);
+        assertEquals(18, state.handCount(0, PieceType.PAWN.ordinal()));
+        assertEquals(2, state.handCount(0, PieceType.ROOK.ordinal()));
+
+        // More pieces than a set has, also when split over several entries
+        for (String hands : new String[] {"20g", "19P", "3B", "5G", "2G3G", "99999999999p"}) {
+            assertThrows(IllegalArgumentException.class,
+                () -> Sfen.toState("4k4/9/9/9/9/9/9/9/4K4 b " + hands + " 1", state), hands);
+        }
+        // A count with no piece after it
+        assertThrows(IllegalArgumentException.class, () -> Sfen.toState("4k4/9/9/9/9/9/9/9/4K4 b G2 1", state));
+        assertThrows(IllegalArgumentException.class, () -> Sfen.toState("4k4/9/9/9/9/9/9/9/4K4 b 2 1", state));
+    }
+
+    @Test
+    void testMoveHistoryCheckpoints() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.HUMAN);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.HUMAN);
+        Board board = new Game(Arrays.asList(sente, gote)).getBoard();
+        MoveGenerator generator = new MoveGenerator();
+        MoveList legal = new MoveList();
+        Random random = new Random(7);
+        List<Long> keys = new ArrayList<>();
+        keys.add(board.getState().getKey());
+        for (int ply = 0; ply < 60; ply++) {
+            generator.generateLegal(board.getState(), legal);
+            if (legal.isEmpty()) {
+                break;
+            }
+            Sides side = Sides.values()[board.getState().getSideToMove()];
+            board.moveManager.applyMove(board.unpackMove(side, legal.get(random.nextInt(legal.size()))));
+            keys.add(board.getState().getKey());
+        }
+
+        MoveHistory history = board.moveManager.getHistory();
+        assertEquals(keys.size() - 1, history.size());
+        BoardState position = new BoardState();
+        for (int ply = 0; ply <= history.size(); ply++) {
+            history.positionAt(ply, position);
+            assertEquals(keys.get(ply), position.getKey(), "Position after ply " + ply);
+        }
+
+        // Undone moves stay in the line until a different move replaces them
+        for (int i = 0; i < 10; i++) {
+            board.moveManager.undoMove();
+        }
+        assertEquals(keys.size() - 1, history.size());
+        assertEquals(history.size() - 10, board.moveManager.getHistoryPly());
+        generator.generateLegal(board.getState(), legal);
+        Sides side = Sides.values()[board.getState().getSideToMove()];
+        board.moveManager.applyMove(board.unpackMove(side, legal.get(0)));
+        assertEquals(keys.size() - 10, board.moveManager.getHistory().size());
+        history.positionAt(history.size(), position);
+        assertEquals(board.getState().getKey(), position.getKey());
+    }
+}
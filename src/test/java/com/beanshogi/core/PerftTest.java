@@ -0,0 +1,78 @@
+package com.beanshogi.core;
+
+import com.beanshogi.core.board.*;
+import com.beanshogi.core.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perft regression suite: leaf node counts of the legal move tree against known numbers.
+ */
+public class PerftTest {
+    // Positions with published perft results
+    private static final String MATSURI = "l6nl/5+P1gk/2np1S3/p1p4Pp/3P2Sp1/1PPb2P1P/P5GS1/R8/LN4bKL w RGgsn5p 1";
+    private static final String MAX_MOVES = "R8/2K1S1SSk/4B4/9/9/9/9/9/1L1L1L3 b RBGSNLP3g3n17p 1";
+
+    private static Board startBoard() {
+        Player sente = new Player(Sides.SENTE, "Sente", PlayerType.AI);
+        Player gote = new Player(Sides.GOTE, "Gote", PlayerType.AI);
+        return new Game(Arrays.asList(sente, gote)).getBoard();
+    }
+
+    @Test
+    void testStandardStartPosition() {
+        Perft perft = new Perft(Sfen.START);
+        assertEquals(1, perft.count(0));
+        assertEquals(30, perft.count(1));
+        assertEquals(900, perft.count(2));
+        assertEquals(25470, perft.count(3));
+        assertEquals(719731, perft.count(4));
+    }
+
+    @Test
+    void testGameStartPosition() {
+        // Game swaps golds and silvers compared to the standard layout
+        Board board = startBoard();
+        long key = board.getState().getKey();
+        Perft perft = new Perft(board);
+        assertEquals(30, perft.count(1));
+        assertEquals(900, perft.count(2));
+        assertEquals(25290, perft.count(3));
+        assertEquals(709579, perft.count(4));
+        assertEquals(key, board.getState().getKey(), "Perft must not touch the board it was created from");
+    }
+
+    @Test
+    void testPositionsWithHands() {
+        Perft matsuri = new Perft(MATSURI);
+        assertEquals(207, matsuri.count(1));
+        assertEquals(28684, matsuri.count(2));
+        assertEquals(4809015, matsuri.count(3));
+
+        Perft maxMoves = new Perft(MAX_MOVES);
+        assertEquals(593, maxMoves.count(1));
+        assertEquals(105677, maxMoves.count(2));
+    }
+
+    @Test
+    void testDivideMatchesCount() {
+        Perft perft = new Perft(MATSURI);
+        Map<String, Long> divide = perft.divide(2);
+        assertEquals(207, divide.size());
+        assertEquals(perft.count(2), divide.values().stream().mapToLong(Long::longValue).sum());
+
+        Map<String, Long> start = new Perft(Sfen.START).divide(1);
+        assertTrue(start.containsKey("7g7f"));
+        assertFalse(start.containsKey("2h2a"));
+    }
+
+    @Test
+    void testInvalidSfenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Perft("lnsgkgsnl/1r5b1/ppppppppp/9/9 b - 1"));
+        assertThrows(IllegalArgumentException.class, () -> new Perft(Sfen.START.replace(" b ", " x ")));
+    }
+}
@@ -0,0 +1,107 @@
+package com.beanshogi.core.ai;
+
+import com.beanshogi.core.board.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveOrderingTest {
+    private static int move(String usi, String sfen) {
+        BoardState state = new BoardState();
+        Sfen.toState(sfen, state);
+        return Sfen.parseMove(usi, state);
+    }
+
+    private static int indexOf(MoveList moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                return i;
+            }
+        }
+        return fail("Move not generated: " + Sfen.formatMove(move));
+    }
+
+    @Test
+    void testOrderingTables() {
+        OrderingTables tables = new OrderingTables();
+        tables.clear();
+        int first = move("7g7f", Sfen.START);
+        int second = move("2g2f", Sfen.START);
+        int previous = move("3c3d", "lnsgkgsnl/1r5b1/ppppppppp/9/9/2P6/PP1PPPPPP/1B5R1/LNSGKGSNL w - 2");
+
+        // Killers: the newest first, a repeated cutoff doesn't push out the other killer
+        tables.cutoff(0, 3, 2, PackedMove.NONE, first);
+        tables.cutoff(0, 3, 2, PackedMove.NONE, second);
+        tables.cutoff(0, 3, 2, PackedMove.NONE, second);
+        assertEquals(second, tables.killer(3, 0));
+        assertEquals(first, tables.killer(3, 1));
+        assertEquals(PackedMove.NONE, tables.killer(4, 0));
+
+        // History grows with the depth squared, per side
+        assertEquals(4, tables.history(0, first));
+        assertEquals(8, tables.history(0, second));
+        assertEquals(0, tables.history(1, first));
+
+        // The countermove answers the opponent's move it refuted, and nothing answers the root
+        assertEquals(PackedMove.NONE, tables.counterMove(0, previous));
+        tables.cutoff(0, 1, 1, previous, first);
+        assertEquals(first, tables.counterMove(0, previous));
+        assertEquals(PackedMove.NONE, tables.counterMove(0, PackedMove.NONE));
+
+        // Reaching the bound halves every score
+        tables.cutoff(0, 5, 128, PackedMove.NONE, second);
+        assertEquals((8 + 128 * 128) / 2, tables.history(0, second));
+        assertEquals(5 / 2, tables.history(0, first));
+        assertTrue(tables.history(0, second) < OrderingTables.HISTORY_MAX);
+
+        tables.clear();
+        assertEquals(PackedMove.NONE, tables.killer(3, 0));
+        assertEquals(0, tables.history(0, second));
+        assertEquals(PackedMove.NONE, tables.counterMove(0, previous));
+    }
+
+    @Test
+    void testPriorityBands() {
+        String before = "lnsgkgsnl/1r5b1/ppppppppp/9/9/2P6/PP1PPPPPP/1B5R1/LNSGKGSNL w - 2";
+        String sfen = "lnsgkgsnl/1r5b1/pppppp1pp/6p2/9/2P6/PP1PPPPPP/1B5R1/LNSGKGSNL b - 3";
+        int previous = move("3c3d", before);
+        int hint = move("2g2f", sfen);
+        int capture = move("8h2b+", sfen);
+        int killer1 = move("1g1f", sfen);
+        int killer2 = move("9g9f", sfen);
+        int counter = move("4g4f", sfen);
+        int historyMove = move("3g3f", sfen);
+        int plain = move("5g5f", sfen);
+
+        SearchWorker worker = new SearchWorker(new ShogiAI(1), true);
+        OrderingTables tables = worker.getOrdering();
+        tables.clear();
+        tables.cutoff(0, 1, 1, previous, counter);
+        tables.cutoff(0, 1, 1, PackedMove.NONE, killer2);
+        tables.cutoff(0, 1, 1, PackedMove.NONE, killer1);
+        tables.cutoff(0, 6, 3, PackedMove.NONE, historyMove);
+
+        BoardState state = new BoardState();
+        Sfen.toState(sfen, state);
+        MoveList moves = new MoveList();
+        worker.generateAllMoves(state, moves, AIDifficulty.HARD, false, hint, 1, previous);
+
+        int[] expected = {hint, capture, killer1, killer2, counter, historyMove, plain};
+        for (int i = 1; i < expected.length; i++) {
+            assertTrue(indexOf(moves, expected[i - 1]) < indexOf(moves, expected[i]),
+                Sfen.formatMove(expected[i - 1]) + " before " + Sfen.formatMove(expected[i]));
+        }
+        assertEquals(0, indexOf(moves, hint));
+        assertTrue(moves.getScore(indexOf(moves, hint)) >= SearchWorker.HINT_MOVE_PRIORITY);
+        assertTrue(moves.getScore(indexOf(moves, capture)) >= SearchWorker.CAPTURE_PRIORITY);
+        assertEquals(SearchWorker.KILLER_PRIORITY + 1, moves.getScore(indexOf(moves, killer1)));
+        assertEquals(SearchWorker.KILLER_PRIORITY, moves.getScore(indexOf(moves, killer2)));
+        assertEquals(SearchWorker.COUNTER_MOVE_PRIORITY, moves.getScore(indexOf(moves, counter)));
+        // Late move reductions skip exactly the moves from the countermove up
+        assertTrue(moves.getScore(indexOf(moves, historyMove)) < SearchWorker.COUNTER_MOVE_PRIORITY);
+        assertEquals(9, moves.getScore(indexOf(moves, historyMove)));
+
+        // Without a previous move there is no countermove, 4g4f falls back to its history
+        worker.generateAllMoves(state, moves, AIDifficulty.HARD, false, hint, 1, PackedMove.NONE);
+        assertTrue(moves.getScore(indexOf(moves, counter)) < SearchWorker.COUNTER_MOVE_PRIORITY);
+    }
+}